@@ -2,8 +2,10 @@ package com.zanta.lfp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class LfpApplication {
     public static void main(String[] args) {
         SpringApplication.run(LfpApplication.class, args);
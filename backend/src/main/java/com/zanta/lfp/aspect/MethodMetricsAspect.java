@@ -0,0 +1,111 @@
+package com.zanta.lfp.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+@Component
+@Slf4j
+public class MethodMetricsAspect {
+
+    private static final String TIMER_NAME = "lfp.method.duration";
+
+    private final MeterRegistry meterRegistry;
+    private final long slowCallThresholdNanos;
+    private final ConcurrentMap<Method, Timer> timers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Nesting> nesting = ThreadLocal.withInitial(Nesting::new);
+
+    public MethodMetricsAspect(MeterRegistry meterRegistry,
+                               @Value("${lfp.metrics.slow-call-threshold:500ms}") Duration slowCallThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowCallThresholdNanos = slowCallThreshold.toNanos();
+    }
+
+    /**
+     * Pointcut for all REST controller methods
+     * Pattern: com.zanta.lfp.*.controller.*.*(..)
+     */
+    @Pointcut("execution(* com.zanta.lfp.*.controller.*.*(..))")
+    public void controllerMethods() {}
+
+    /**
+     * Pointcut for all service methods, leaving out the in-memory components in the service packages
+     * (GameCatalog, LobbyIndex) that are called per request and per event
+     * Pattern: @Service classes in com.zanta.lfp.*.service
+     */
+    @Pointcut("execution(* com.zanta.lfp.*.service.*.*(..)) && @within(org.springframework.stereotype.Service)")
+    public void serviceMethods() {}
+
+    @Around("controllerMethods()")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, "controller");
+    }
+
+    @Around("serviceMethods()")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(joinPoint, "service");
+    }
+
+    /**
+     * Records the call into a per-method timer (nanosecond precision, percentile histogram for
+     * controllers). The timer is resolved once per method, so the fast path is a map lookup and a record.
+     * Only calls slower than the threshold are logged, once per outermost call: the innermost slow method
+     * is named and the enclosing controller, slow because of it, is not logged again.
+     */
+    private Object timed(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Nesting calls = nesting.get();
+        calls.depth++;
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            calls.depth--;
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            Timer timer = timers.get(method);
+            if (timer == null) {
+                timer = timers.computeIfAbsent(method, m -> register(m, layer));
+            }
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+
+            if (elapsed >= slowCallThresholdNanos && !calls.slowCallLogged) {
+                calls.slowCallLogged = true;
+                log.warn("Slow {} call: {}.{}() took {} ms", layer, method.getDeclaringClass().getSimpleName(),
+                        method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            if (calls.depth == 0) {
+                calls.slowCallLogged = false;
+            }
+        }
+    }
+
+    // histogram buckets only for the request-level timers, service timers keep count, total and max
+    private Timer register(Method method, String layer) {
+        return Timer.builder(TIMER_NAME)
+                .description("Execution time of controller and service methods")
+                .tag("layer", layer)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .publishPercentileHistogram("controller".equals(layer))
+                .register(meterRegistry);
+    }
+
+    private static final class Nesting {
+        private int depth;
+        private boolean slowCallLogged;
+    }
+}
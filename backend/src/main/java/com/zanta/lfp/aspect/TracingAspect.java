@@ -0,0 +1,81 @@
+package com.zanta.lfp.aspect;
+
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import com.zanta.lfp.cloud.tracing.DistributedTracing.Span;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    private final DistributedTracing tracing;
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, String>> spanNames = new ConcurrentHashMap<>();
+
+    /**
+     * Pointcut for all Spring Data repository methods, including inherited ones like save()
+     */
+    @Pointcut("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public void repositoryMethods() {}
+
+    /**
+     * Wraps controller, service and repository calls in child spans of the request's trace.
+     * Outside a traced request (scheduled jobs, startup) this is a single thread-local read.
+     */
+    @Around("com.zanta.lfp.aspect.MethodMetricsAspect.controllerMethods()"
+            + " || com.zanta.lfp.aspect.MethodMetricsAspect.serviceMethods()"
+            + " || repositoryMethods()")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (tracing.currentSpan() == null) {
+            return joinPoint.proceed();
+        }
+        Span span = tracing.startSpan(spanName(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            tracing.error(span, ex);
+            throw ex;
+        } finally {
+            tracing.end(span);
+        }
+    }
+
+    // resolved once per bean class and method, e.g. PostRepository.findFeedPageIds
+    private String spanName(ProceedingJoinPoint joinPoint) {
+        Class<?> beanClass = joinPoint.getThis().getClass();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ConcurrentMap<Method, String> names = spanNames.get(beanClass);
+        if (names == null) {
+            names = spanNames.computeIfAbsent(beanClass, c -> new ConcurrentHashMap<>());
+        }
+        String name = names.get(method);
+        if (name == null) {
+            name = names.computeIfAbsent(method, m -> typeName(beanClass) + "." + m.getName());
+        }
+        return name;
+    }
+
+    private static String typeName(Class<?> beanClass) {
+        if (Proxy.isProxyClass(beanClass)) {
+            for (Class<?> type : beanClass.getInterfaces()) {
+                if (Repository.class.isAssignableFrom(type)) {
+                    return type.getSimpleName();
+                }
+            }
+        }
+        return ClassUtils.getUserClass(beanClass).getSimpleName();
+    }
+}
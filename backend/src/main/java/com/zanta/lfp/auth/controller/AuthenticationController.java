@@ -2,7 +2,6 @@ package com.zanta.lfp.auth.controller;
 
 
 import com.zanta.lfp.auth.dto.AuthenticationRequest;
-import com.zanta.lfp.auth.dto.AuthenticationResponse;
 import com.zanta.lfp.auth.service.AuthenticationService;
 import com.zanta.lfp.auth.dto.RegisterRequest;
 import jakarta.validation.Valid;
@@ -11,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("api/v1/auth")
 @RequiredArgsConstructor
@@ -19,15 +20,15 @@ public class AuthenticationController {
     private final AuthenticationService service;
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody @Valid RegisterRequest request) {
-            AuthenticationResponse response = service.register(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody @Valid RegisterRequest request) {
+        return service.register(request)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
     }
 
+    // Completes off the request thread once the password is verified
     @PostMapping("/authenticate")
-    public ResponseEntity<?> register(@RequestBody AuthenticationRequest request) {
-        return service.authenticate(request);
+    public CompletableFuture<ResponseEntity<?>> authenticate(@RequestBody AuthenticationRequest request) {
+        return service.authenticate(request).thenApply(ResponseEntity::ok);
     }
 }
 
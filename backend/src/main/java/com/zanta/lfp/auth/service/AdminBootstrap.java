@@ -0,0 +1,55 @@
+package com.zanta.lfp.auth.service;
+
+import com.zanta.lfp.user.model.AppBootstrap;
+import com.zanta.lfp.user.repository.AppBootstrapRepository;
+import com.zanta.lfp.user.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides which signup becomes ADMIN: the first user ever. The decision is the persisted
+ * {@code app_bootstrap} row, created on startup and already claimed when the users table has rows.
+ * A signup claims it with a conditional UPDATE inside its own transaction, so across all instances
+ * only one signup wins, and a failed insert rolls the claim back for the next one. Once this
+ * instance has seen the claim taken, signups skip the UPDATE.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdminBootstrap {
+
+    private final AppBootstrapRepository bootstrapRepository;
+    private final UserRepository userRepository;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    @PostConstruct
+    void createMarker() {
+        if (bootstrapRepository.existsById(AppBootstrap.ID)) {
+            return;
+        }
+        try {
+            bootstrapRepository.saveAndFlush(new AppBootstrap(AppBootstrap.ID, userRepository.count() > 0));
+        } catch (DataIntegrityViolationException ex) {
+            // another instance created the row first
+        }
+    }
+
+    /** Claims the ADMIN role in the caller's transaction; must be followed by {@link #markClaimed()} after commit. */
+    public boolean tryClaim() {
+        if (claimed.get()) {
+            return false;
+        }
+        if (bootstrapRepository.claimAdmin() == 0) {
+            claimed.set(true);
+            return false;
+        }
+        return true;
+    }
+
+    public void markClaimed() {
+        claimed.set(true);
+    }
+}
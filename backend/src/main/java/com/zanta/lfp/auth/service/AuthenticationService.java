@@ -10,14 +10,18 @@ import com.zanta.lfp.user.enums.ERole;
 import com.zanta.lfp.user.model.User;
 import com.zanta.lfp.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 @Service
 @RequiredArgsConstructor
@@ -26,41 +30,51 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final ExecutorService passwordHashingExecutor;
+    private final AdminBootstrap adminBootstrap;
+    private final TransactionTemplate transactionTemplate;
 
-    public AuthenticationResponse register(RegisterRequest request) {
-        checkUsername(request.getUsername());
-        checkEmail(request.getEmail());
-        return saveUser(request);
+    // Duplicates are rejected by the unique constraints on insert, so a signup is a single INSERT
+    // plus BCrypt on the password hashing pool (and one UPDATE until this instance sees the first admin)
+    public CompletableFuture<AuthenticationResponse> register(RegisterRequest request) {
+        return CompletableFuture.supplyAsync(() -> saveUser(request), passwordHashingExecutor);
     }
 
-    public ResponseEntity<?> authenticate(AuthenticationRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
-                )
-        );
-        if (!repository.existsByUsername(request.getUsername())) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found");
-        }
-        var user = repository.findByUsername(request.getUsername()).orElseThrow();
-
-        return ResponseEntity.ok().body(response(user));
+    // The principal is the User loaded by the UserDetailsService, so a login is one query plus BCrypt.
+    // Both run on the password hashing pool; a full pool throws RejectedExecutionException here.
+    public CompletableFuture<AuthenticationResponse> authenticate(AuthenticationRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername(),
+                            request.getPassword()
+                    )
+            );
+            return response((User) authentication.getPrincipal());
+        }, passwordHashingExecutor);
     }
 
     private AuthenticationResponse saveUser(RegisterRequest request) {
-        ERole roleToAssign = repository.count() == 0 ? ERole.ADMIN : ERole.USER;
-        var user = User.builder()
-                .firstName(request.getFirstName())
-                .lastName(request.getLastName())
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(roleToAssign)
-                .gender(request.getGender())
-                .joinDate(LocalDateTime.now())
-                .build();
-        repository.save(user);
+        String password = passwordEncoder.encode(request.getPassword());
+        User user;
+        try {
+            // the admin claim commits or rolls back together with the insert
+            user = transactionTemplate.execute(status -> repository.save(User.builder()
+                    .firstName(request.getFirstName())
+                    .lastName(request.getLastName())
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(password)
+                    .role(adminBootstrap.tryClaim() ? ERole.ADMIN : ERole.USER)
+                    .gender(request.getGender())
+                    .joinDate(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException violation) {
+            throw new RuntimeException(duplicateMessage(violation), violation);
+        }
+        if (user.getRole() == ERole.ADMIN) {
+            adminBootstrap.markClaimed();
+        }
         return response(user);
     }
 
@@ -72,16 +86,17 @@ public class AuthenticationService {
                 .build();
     }
 
-    // Checkers
-    private void checkUsername(String username) {
-        if (repository.existsByUsername(username)) {
-            throw new RuntimeException("Username already taken");
+    private static String duplicateMessage(DataIntegrityViolationException ex) {
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        String detail = String.valueOf(constraint != null ? constraint : ex.getMostSpecificCause().getMessage());
+        if (detail.contains(User.USERNAME_CONSTRAINT)) {
+            return "Username already taken";
         }
-    }
-
-    private void checkEmail(String email) {
-        if (repository.existsByEmail(email)) {
-            throw new RuntimeException("Email already taken");
+        if (detail.contains(User.EMAIL_CONSTRAINT)) {
+            return "Email already taken";
         }
+        return "Registration failed";
     }
 }
@@ -0,0 +1,138 @@
+package com.zanta.lfp.cloud;
+
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreakerRegistry;
+import com.zanta.lfp.cloud.config.ConfigServer;
+import com.zanta.lfp.cloud.discovery.ServiceDiscovery;
+import com.zanta.lfp.cloud.gateway.ApiGateway;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.cloud.messaging.MessageQueue;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.registry.ServiceRegistry;
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import com.zanta.lfp.cloud.tracing.FileSpanExporter;
+import com.zanta.lfp.config.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Configuration
+public class CloudComponentsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "lfp.gateway.enabled", havingValue = "true")
+    public ApiGateway apiGateway(
+            LoadBalancer loadBalancer,
+            RateLimiter rateLimiter,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            DistributedTracing distributedTracing,
+            JwtService jwtService,
+            @Value("${lfp.gateway.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${lfp.gateway.request-timeout:30s}") Duration requestTimeout,
+            @Value("${lfp.gateway.requests-per-minute:600}") int requestsPerMinute) {
+        ApiGateway.Config config = new ApiGateway.Config(connectTimeout, requestTimeout,
+                RateLimiter.Budget.perMinute(RateLimiter.Mode.TOKEN_BUCKET, requestsPerMinute));
+        return new ApiGateway(loadBalancer, rateLimiter, circuitBreakerRegistry, distributedTracing,
+                token -> jwtService.parseClaims(token).getSubject(), config);
+    }
+
+    @Bean
+    public ServiceDiscovery serviceDiscovery(
+            ServiceRegistry serviceRegistry,
+            LoadBalancer loadBalancer,
+            @Value("${lfp.discovery.health-path:/actuator/health}") String healthPath,
+            @Value("${lfp.discovery.probe-timeout:2s}") Duration probeTimeout) {
+        ServiceDiscovery serviceDiscovery = new ServiceDiscovery(serviceRegistry, healthPath, probeTimeout);
+        // failed probes take the instance out of the balancer's picks until it answers again
+        serviceDiscovery.addHealthListener((instance, health) -> {
+            if (health == ServiceDiscovery.Health.DOWN) {
+                loadBalancer.markDown(instance.getUrl());
+            } else {
+                loadBalancer.markHealthy(instance.getUrl());
+            }
+        });
+        return serviceDiscovery;
+    }
+
+    @Bean
+    public LoadBalancer loadBalancer(
+            @Value("${lfp.load-balancer.strategy:POWER_OF_TWO_CHOICES}") LoadBalancer.LoadBalancingStrategy strategy,
+            @Value("${lfp.load-balancer.unhealthy-cooldown:30s}") Duration unhealthyCooldown) {
+        return new LoadBalancer(strategy, unhealthyCooldown);
+    }
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            MeterRegistry meterRegistry,
+            @Value("${lfp.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${lfp.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${lfp.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${lfp.circuit-breaker.slow-call-rate-threshold:80}") int slowCallRateThreshold,
+            @Value("${lfp.circuit-breaker.slow-call-duration:2s}") Duration slowCallDuration,
+            @Value("${lfp.circuit-breaker.open-duration:30s}") Duration openDuration,
+            @Value("${lfp.circuit-breaker.half-open-probes:5}") int halfOpenProbes) {
+        CircuitBreaker.Config defaults = new CircuitBreaker.Config(windowSize, minimumCalls, failureRateThreshold,
+                slowCallRateThreshold, slowCallDuration, openDuration, halfOpenProbes, ex -> true);
+        return new CircuitBreakerRegistry(defaults, meterRegistry);
+    }
+
+    @Bean
+    public ConfigServer configServer(MeterRegistry meterRegistry,
+                                     @Value("${lfp.config.dir:}") String directory) {
+        return new ConfigServer(directory.isBlank() ? null : Path.of(directory), meterRegistry);
+    }
+
+    @Bean
+    public MessageQueue messageQueue(
+            MeterRegistry meterRegistry,
+            @Value("${lfp.messaging.capacity:8192}") int capacity,
+            @Value("${lfp.messaging.batch-size:64}") int batchSize,
+            @Value("${lfp.messaging.backpressure:DROP}") MessageQueue.Backpressure backpressure,
+            @Value("${lfp.messaging.block-timeout:1s}") Duration blockTimeout) {
+        return new MessageQueue(new MessageQueue.TopicConfig(capacity, batchSize, backpressure, blockTimeout), meterRegistry);
+    }
+
+    @Bean
+    public DistributedTracing distributedTracing(
+            MeterRegistry meterRegistry,
+            @Value("${spring.application.name:lfp}") String serviceName,
+            @Value("${lfp.tracing.head-sample-rate:0.01}") double headSampleRate,
+            @Value("${lfp.tracing.tail-latency-threshold:500ms}") Duration tailLatencyThreshold,
+            @Value("${lfp.tracing.buffer-capacity:65536}") int bufferCapacity,
+            @Value("${lfp.tracing.export-batch-size:512}") int exportBatchSize,
+            @Value("${lfp.tracing.export-file:${java.io.tmpdir}/lfp-spans.jsonl}") Path exportFile,
+            @Value("${lfp.tracing.export-file-max-size:64MB}") DataSize exportFileMaxSize) {
+        DistributedTracing.Config config = new DistributedTracing.Config(
+                serviceName, headSampleRate, tailLatencyThreshold, bufferCapacity, exportBatchSize);
+        FileSpanExporter exporter = new FileSpanExporter(exportFile, exportFileMaxSize.toBytes());
+        return new DistributedTracing(config, exporter, meterRegistry);
+    }
+
+    @Bean
+    public RateLimiter rateLimiter(@Value("${lfp.rate-limit.idle-timeout:10m}") Duration idleTimeout) {
+        return new RateLimiter(idleTimeout);
+    }
+
+    @Bean
+    public ServiceRegistry serviceRegistry(
+            LoadBalancer loadBalancer,
+            @Value("${lfp.registry.down-after:15s}") Duration downAfter,
+            @Value("${lfp.registry.evict-after:60s}") Duration evictAfter) {
+        ServiceRegistry serviceRegistry = new ServiceRegistry(downAfter, evictAfter);
+        // the balancer's pools follow the registry's UP instances without polling
+        serviceRegistry.addListener((serviceName, instances) -> {
+            Map<String, Integer> weightedUrls = new LinkedHashMap<>();
+            instances.forEach(instance -> weightedUrls.put(instance.getUrl(), instance.getWeight()));
+            loadBalancer.updateWeightedInstances(serviceName, weightedUrls);
+        });
+        return serviceRegistry;
+    }
+}
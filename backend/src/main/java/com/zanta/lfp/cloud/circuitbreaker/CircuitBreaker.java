@@ -0,0 +1,318 @@
+package com.zanta.lfp.cloud.circuitbreaker;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker. Outcomes of the last {@code windowSize} calls are kept in a ring;
+ * once at least {@code minimumCalls} were recorded, the circuit opens when either the failure
+ * rate or the slow call rate reaches its threshold. After {@code openDuration} the next caller
+ * moves it to HALF_OPEN, where only {@code halfOpenProbes} calls are let through and their
+ * outcome decides between CLOSED and OPEN again.
+ * <p>
+ * Every state owns its own window; transitions swap the whole phase with a CAS, so a state
+ * change and the reset of its counters are a single atomic step, and outcomes of calls admitted
+ * under an older phase are simply dropped.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Breaker settings; thresholds are percentages of the recorded calls. Exceptions rejected by
+     * {@code recordFailure} are rethrown to the caller without counting against the circuit.
+     */
+    public record Config(int windowSize,
+                         int minimumCalls,
+                         int failureRateThreshold,
+                         int slowCallRateThreshold,
+                         Duration slowCallDuration,
+                         Duration openDuration,
+                         int halfOpenProbes,
+                         Predicate<Throwable> recordFailure) {
+
+        public Config {
+            if (windowSize <= 0 || halfOpenProbes <= 0) {
+                throw new IllegalArgumentException("Circuit breaker window and probe count must be positive");
+            }
+            minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        }
+
+        public static Config defaults() {
+            return new Config(50, 20, 50, 80, Duration.ofSeconds(2), Duration.ofSeconds(30), 5, ex -> true);
+        }
+
+        public Config withRecordFailure(Predicate<Throwable> recordFailure) {
+            return new Config(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                    slowCallDuration, openDuration, halfOpenProbes, recordFailure);
+        }
+    }
+
+    /** Passed to the fallback when the call was short-circuited without being attempted. */
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException(String name) {
+            super("Circuit breaker '" + name + "' is open");
+        }
+    }
+
+    private final String name;
+    private final Config config;
+    private final LongSupplier clock;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final AtomicReference<Phase> phase;
+    private final LongAdder notPermittedCalls = new LongAdder();
+
+    public CircuitBreaker() {
+        this("default", Config.defaults());
+    }
+
+    public CircuitBreaker(String name, Config config) {
+        this(name, config, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, Config config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.slowCallNanos = config.slowCallDuration().toNanos();
+        this.openNanos = config.openDuration().toNanos();
+        this.phase = new AtomicReference<>(closedPhase(clock.getAsLong()));
+    }
+
+    public <T> T execute(Supplier<T> call, Function<Throwable, T> fallback) {
+        Phase admitted = acquirePermission();
+        if (admitted == null) {
+            notPermittedCalls.increment();
+            return fallback.apply(new CallNotPermittedException(name));
+        }
+        long start = clock.getAsLong();
+        try {
+            T result = call.get();
+            onComplete(admitted, false, clock.getAsLong() - start);
+            return result;
+        } catch (RuntimeException ex) {
+            if (!config.recordFailure().test(ex)) {
+                onComplete(admitted, false, clock.getAsLong() - start);
+                throw ex;
+            }
+            onComplete(admitted, true, clock.getAsLong() - start);
+            return fallback.apply(ex);
+        } catch (Throwable error) {
+            // errors skip the fallback but still complete the call, or a half-open probe would never come back
+            onComplete(admitted, config.recordFailure().test(error), clock.getAsLong() - start);
+            throw error;
+        }
+    }
+
+    /**
+     * Admits one asynchronous call, or returns null when it must not be attempted. The permit
+     * has to be completed exactly once, with {@link Permit#onSuccess()} or {@link Permit#onError}.
+     */
+    public Permit tryAcquirePermission() {
+        Phase admitted = acquirePermission();
+        if (admitted == null) {
+            notPermittedCalls.increment();
+            return null;
+        }
+        return new Permit(admitted, clock.getAsLong());
+    }
+
+    public final class Permit {
+        private final Phase admitted;
+        private final long start;
+
+        private Permit(Phase admitted, long start) {
+            this.admitted = admitted;
+            this.start = start;
+        }
+
+        public void onSuccess() {
+            onComplete(admitted, false, clock.getAsLong() - start);
+        }
+
+        public void onError(Throwable error) {
+            onComplete(admitted, config.recordFailure().test(error), clock.getAsLong() - start);
+        }
+    }
+
+    public Object execute(Runnable serviceCall, Object fallback) {
+        return execute(() -> {
+            serviceCall.run();
+            return null;
+        }, ex -> fallback);
+    }
+
+    public CircuitState getState() {
+        return phase.get().state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getNotPermittedCalls() {
+        return notPermittedCalls.sum();
+    }
+
+    public void reset() {
+        phase.set(closedPhase(clock.getAsLong()));
+        log.info("Circuit breaker '{}' manually reset to CLOSED", name);
+    }
+
+    /** Returns the phase the call is admitted under, or null when it must not be attempted. */
+    private Phase acquirePermission() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return current;
+                case OPEN:
+                    if (clock.getAsLong() - current.since < openNanos) {
+                        return null;
+                    }
+                    transition(current, CircuitState.HALF_OPEN);
+                    continue;
+                default:
+                    return current.tryTakeProbe() ? current : null;
+            }
+        }
+    }
+
+    private void onComplete(Phase admitted, boolean failed, long durationNanos) {
+        if (phase.get() != admitted) {
+            return;
+        }
+        Window window = admitted.window;
+        window.record(failed, durationNanos >= slowCallNanos);
+        if (window.recorded() < window.minimumCalls) {
+            return;
+        }
+        boolean overThreshold = window.rate(window.failures()) >= config.failureRateThreshold()
+                || window.rate(window.slowCalls()) >= config.slowCallRateThreshold();
+        if (admitted.state == CircuitState.HALF_OPEN) {
+            transition(admitted, overThreshold ? CircuitState.OPEN : CircuitState.CLOSED);
+        } else if (overThreshold) {
+            transition(admitted, CircuitState.OPEN);
+        }
+    }
+
+    private void transition(Phase from, CircuitState to) {
+        long now = clock.getAsLong();
+        Phase next = switch (to) {
+            case CLOSED -> closedPhase(now);
+            case OPEN -> new Phase(CircuitState.OPEN, now, null, 0);
+            case HALF_OPEN -> new Phase(CircuitState.HALF_OPEN, now,
+                    new Window(config.halfOpenProbes(), config.halfOpenProbes()), config.halfOpenProbes());
+        };
+        if (phase.compareAndSet(from, next)) {
+            if (to == CircuitState.OPEN) {
+                log.warn("Circuit breaker '{}' {} -> OPEN", name, from.state);
+            } else {
+                log.info("Circuit breaker '{}' {} -> {}", name, from.state, to);
+            }
+        }
+    }
+
+    private Phase closedPhase(long now) {
+        return new Phase(CircuitState.CLOSED, now, new Window(config.windowSize(), config.minimumCalls()), 0);
+    }
+
+    private static final class Phase {
+        final CircuitState state;
+        final long since;
+        final Window window;
+        final AtomicInteger probes;
+
+        Phase(CircuitState state, long since, Window window, int probes) {
+            this.state = state;
+            this.since = since;
+            this.window = window;
+            this.probes = new AtomicInteger(probes);
+        }
+
+        boolean tryTakeProbe() {
+            while (true) {
+                int left = probes.get();
+                if (left <= 0) {
+                    return false;
+                }
+                if (probes.compareAndSet(left, left - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ring of call outcomes with running totals. Each slot holds the outcome bits of one call;
+     * overwriting a slot subtracts what it held, so the totals always describe the last
+     * {@code size} calls without rescanning.
+     */
+    private static final class Window {
+        private static final int RECORDED = 1;
+        private static final int FAILED = 2;
+        private static final int SLOW = 4;
+
+        final int minimumCalls;
+        private final AtomicIntegerArray outcomes;
+        private final AtomicLong cursor = new AtomicLong();
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicInteger slowCalls = new AtomicInteger();
+
+        Window(int size, int minimumCalls) {
+            this.outcomes = new AtomicIntegerArray(size);
+            this.minimumCalls = minimumCalls;
+        }
+
+        void record(boolean failed, boolean slow) {
+            int outcome = RECORDED | (failed ? FAILED : 0) | (slow ? SLOW : 0);
+            int slot = (int) (cursor.getAndIncrement() % outcomes.length());
+            int previous = outcomes.getAndSet(slot, outcome);
+            if ((previous & RECORDED) == 0) {
+                recorded.incrementAndGet();
+            }
+            adjust(failures, previous & FAILED, outcome & FAILED);
+            adjust(slowCalls, previous & SLOW, outcome & SLOW);
+        }
+
+        int recorded() {
+            return recorded.get();
+        }
+
+        int failures() {
+            return failures.get();
+        }
+
+        int slowCalls() {
+            return slowCalls.get();
+        }
+
+        int rate(int count) {
+            int total = recorded.get();
+            return total == 0 ? 0 : count * 100 / total;
+        }
+
+        private static void adjust(AtomicInteger counter, int before, int after) {
+            if (before != after) {
+                counter.addAndGet(after != 0 ? 1 : -1);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.zanta.lfp.cloud.circuitbreaker;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Named circuit breakers sharing one default configuration. Each breaker publishes its state
+ * (0 closed, 1 open, 2 half-open) and short-circuited call count, tagged with its name.
+ */
+public class CircuitBreakerRegistry {
+
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final CircuitBreaker.Config defaults;
+    private final MeterRegistry meterRegistry;
+
+    public CircuitBreakerRegistry(CircuitBreaker.Config defaults, MeterRegistry meterRegistry) {
+        this.defaults = defaults;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CircuitBreaker breaker(String name) {
+        return breaker(name, defaults.recordFailure());
+    }
+
+    /** The failure predicate only applies when the breaker is created by this call. */
+    public CircuitBreaker breaker(String name, Predicate<Throwable> recordFailure) {
+        return breakers.computeIfAbsent(name, n -> register(new CircuitBreaker(n, defaults.withRecordFailure(recordFailure))));
+    }
+
+    private CircuitBreaker register(CircuitBreaker breaker) {
+        Gauge.builder("lfp.circuit-breaker.state", breaker, b -> b.getState().ordinal())
+                .tag("name", breaker.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("lfp.circuit-breaker.not-permitted", breaker, CircuitBreaker::getNotPermittedCalls)
+                .tag("name", breaker.getName())
+                .register(meterRegistry);
+        return breaker;
+    }
+}
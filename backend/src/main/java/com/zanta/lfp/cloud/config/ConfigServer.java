@@ -0,0 +1,283 @@
+package com.zanta.lfp.cloud.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versioned configuration per service and profile. The whole configuration is an immutable
+ * snapshot behind an {@link AtomicReference}, so reads are two map lookups with no locking or
+ * allocation; writers build the next snapshot under a lock and swap it in.
+ * <p>
+ * When a directory is given, every {@code <service>-<profile>.properties} file in it is a scope.
+ * {@link #refreshAll()} runs on a schedule, reloads only the files whose modification time or
+ * size changed, and drops scopes whose file disappeared. Listeners of a scope receive the keys
+ * that actually changed, after the new snapshot is visible to readers.
+ */
+@Slf4j
+public class ConfigServer {
+
+    /** Changes of one scope between two versions; {@code previous} and {@code current} are complete. */
+    public record ConfigChange(long version,
+                               String serviceName,
+                               String profile,
+                               Set<String> changedKeys,
+                               Map<String, String> previous,
+                               Map<String, String> current) {
+
+        public boolean changed(String key) {
+            return changedKeys.contains(key);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ConfigListener {
+        void onChange(ConfigChange change);
+    }
+
+    private record Snapshot(long version, Map<String, Map<String, Map<String, String>>> services) {
+
+        static final Snapshot EMPTY = new Snapshot(0, Map.of());
+
+        Map<String, String> get(String serviceName, String profile) {
+            Map<String, Map<String, String>> profiles = services.get(serviceName);
+            if (profiles == null) {
+                return Map.of();
+            }
+            Map<String, String> config = profiles.get(profile);
+            return config == null ? Map.of() : config;
+        }
+    }
+
+    private record Scope(String serviceName, String profile) {
+    }
+
+    private record Registration(String serviceName, String profile, ConfigListener listener) {
+    }
+
+    private record FileStamp(long lastModified, long size) {
+    }
+
+    private static final String SUFFIX = ".properties";
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+    private final CopyOnWriteArrayList<Registration> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<Path, FileStamp> loadedFiles = new HashMap<>();
+    private final Path directory;
+
+    public ConfigServer() {
+        this(null, new SimpleMeterRegistry());
+    }
+
+    /** {@code directory} may be null for a purely in-memory server. */
+    public ConfigServer(Path directory, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        Gauge.builder("lfp.config.version", snapshot, ref -> ref.get().version())
+                .description("Version of the active configuration snapshot")
+                .register(meterRegistry);
+        if (directory != null) {
+            refreshAll();
+        }
+    }
+
+    /** Immutable configuration of the scope, empty when unknown. */
+    public Map<String, String> getConfiguration(String serviceName, String profile) {
+        return snapshot.get().get(serviceName, profile);
+    }
+
+    public String getProperty(String serviceName, String profile, String key) {
+        return snapshot.get().get(serviceName, profile).get(key);
+    }
+
+    public long getVersion() {
+        return snapshot.get().version();
+    }
+
+    /** Replaces the configuration of one scope; an empty map removes it. */
+    public void updateConfiguration(String serviceName, String profile, Map<String, String> config) {
+        writeLock.lock();
+        try {
+            apply(Map.of(new Scope(serviceName, profile), Map.copyOf(config)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Listens to one scope; called only when at least one of its keys changed. */
+    public void addListener(String serviceName, String profile, ConfigListener listener) {
+        listeners.add(new Registration(serviceName, profile, listener));
+    }
+
+    /** Reloads changed files from the watched directory; a no-op without one. */
+    @Scheduled(fixedDelayString = "${lfp.config.refresh-interval:5s}")
+    public void refreshAll() {
+        if (directory == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<Path, FileStamp> seen = scan();
+            Map<Scope, Map<String, String>> updates = new LinkedHashMap<>();
+            for (Map.Entry<Path, FileStamp> entry : seen.entrySet()) {
+                Path file = entry.getKey();
+                if (entry.getValue().equals(loadedFiles.get(file))) {
+                    continue;
+                }
+                Map<String, String> config = load(file);
+                if (config != null) {
+                    updates.put(scopeOf(file), config);
+                } else {
+                    // retried on the next refresh; the scope keeps serving what it had
+                    entry.setValue(loadedFiles.getOrDefault(file, new FileStamp(-1, -1)));
+                }
+            }
+            for (Path file : loadedFiles.keySet()) {
+                if (!seen.containsKey(file)) {
+                    updates.put(scopeOf(file), Map.of());
+                }
+            }
+            loadedFiles.clear();
+            loadedFiles.putAll(seen);
+            if (!updates.isEmpty()) {
+                apply(updates);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // caller holds writeLock
+    private void apply(Map<Scope, Map<String, String>> updates) {
+        Snapshot before = snapshot.get();
+        Map<String, Map<String, Map<String, String>>> services = new HashMap<>();
+        before.services().forEach((service, profiles) -> services.put(service, new HashMap<>(profiles)));
+
+        List<ConfigChange> changes = new ArrayList<>();
+        long version = before.version() + 1;
+        updates.forEach((scope, config) -> {
+            Map<String, String> previous = before.get(scope.serviceName(), scope.profile());
+            Set<String> changedKeys = diff(previous, config);
+            if (changedKeys.isEmpty()) {
+                return;
+            }
+            Map<String, Map<String, String>> profiles = services.computeIfAbsent(scope.serviceName(), s -> new HashMap<>());
+            if (config.isEmpty()) {
+                profiles.remove(scope.profile());
+                if (profiles.isEmpty()) {
+                    services.remove(scope.serviceName());
+                }
+            } else {
+                profiles.put(scope.profile(), config);
+            }
+            changes.add(new ConfigChange(version, scope.serviceName(), scope.profile(), changedKeys, previous, config));
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Map<String, String>>> frozen = new HashMap<>();
+        services.forEach((service, profiles) -> frozen.put(service, Map.copyOf(profiles)));
+        snapshot.set(new Snapshot(version, Map.copyOf(frozen)));
+
+        for (ConfigChange change : changes) {
+            log.info("Configuration {}-{} is now version {}, changed keys {}",
+                    change.serviceName(), change.profile(), version, change.changedKeys());
+            notifyListeners(change);
+        }
+    }
+
+    private void notifyListeners(ConfigChange change) {
+        for (Registration registration : listeners) {
+            if (registration.serviceName().equals(change.serviceName())
+                    && registration.profile().equals(change.profile())) {
+                try {
+                    registration.listener().onChange(change);
+                } catch (RuntimeException ex) {
+                    log.error("Config listener failed for {}-{}", change.serviceName(), change.profile(), ex);
+                }
+            }
+        }
+    }
+
+    private static Set<String> diff(Map<String, String> previous, Map<String, String> current) {
+        Set<String> changed = new HashSet<>();
+        current.forEach((key, value) -> {
+            if (!value.equals(previous.get(key))) {
+                changed.add(key);
+            }
+        });
+        for (String key : previous.keySet()) {
+            if (!current.containsKey(key)) {
+                changed.add(key);
+            }
+        }
+        return Set.copyOf(changed);
+    }
+
+    private Map<Path, FileStamp> scan() {
+        Map<Path, FileStamp> files = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && scopeOf(file) != null) {
+                    files.put(file, new FileStamp(Files.getLastModifiedTime(file).toMillis(), Files.size(file)));
+                }
+            }
+        } catch (IOException ex) {
+            // keep serving the current snapshot; a later refresh will pick the files up
+            log.warn("Could not scan config directory {}", directory, ex);
+            return new HashMap<>(loadedFiles);
+        }
+        return files;
+    }
+
+    // null when the file cannot be read, so the scope keeps its previous configuration
+    private static Map<String, String> load(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException ex) {
+            log.warn("Could not load config file {}", file, ex);
+            return null;
+        }
+        Map<String, String> config = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            config.put(name, properties.getProperty(name).trim());
+        }
+        return Map.copyOf(config);
+    }
+
+    // lfp-default.properties -> service "lfp", profile "default"; the profile is after the last dash
+    private static Scope scopeOf(Path file) {
+        String name = file.getFileName().toString();
+        String base = name.substring(0, name.length() - SUFFIX.length());
+        int dash = base.lastIndexOf('-');
+        if (dash <= 0 || dash == base.length() - 1) {
+            return null;
+        }
+        return new Scope(base.substring(0, dash), base.substring(dash + 1));
+    }
+}
@@ -0,0 +1,201 @@
+package com.zanta.lfp.cloud.discovery;
+
+import com.zanta.lfp.cloud.registry.ServiceRegistry;
+import com.zanta.lfp.cloud.registry.ServiceRegistry.ServiceInstance;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Client-side view of the registry. Each service's usable instances are cached as immutable
+ * lists that the registry's change events replace, so a lookup is one map read that allocates
+ * nothing and never waits on the registry; between events callers keep getting the last list.
+ * <p>
+ * Instances are also probed over HTTP on a schedule. Instances whose probe fails are left out
+ * of the lists until a probe succeeds again, unless every instance of the service failed, in
+ * which case all UP instances are returned rather than none.
+ */
+@Slf4j
+public class ServiceDiscovery {
+
+    public enum Health {
+        UNKNOWN,
+        UP,
+        DOWN
+    }
+
+    @FunctionalInterface
+    public interface HealthListener {
+        /** Called when the probed health of an instance changes. */
+        void onHealthChange(ServiceInstance instance, Health health);
+    }
+
+    private record View(List<ServiceInstance> instances, List<String> urls) {
+
+        static final View EMPTY = new View(List.of(), List.of());
+    }
+
+    private final ServiceRegistry registry;
+    private final String healthPath;
+    private final Duration probeTimeout;
+    private final ConcurrentHashMap<String, View> views = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Health> healthByUrl = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<HealthListener> healthListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+
+    public ServiceDiscovery(ServiceRegistry registry, String healthPath, Duration probeTimeout) {
+        this.registry = registry;
+        this.healthPath = healthPath;
+        this.probeTimeout = probeTimeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(probeTimeout)
+                .executor(executor)
+                .build();
+        registry.addListener(this::refresh);
+    }
+
+    public void addHealthListener(HealthListener listener) {
+        healthListeners.add(listener);
+    }
+
+    public void registerService(String serviceName, String instanceId, String host, int port) {
+        registry.register(new ServiceInstance(instanceId, serviceName, host, port));
+    }
+
+    public void deregisterService(String serviceName, String instanceId) {
+        registry.deregister(serviceName, instanceId);
+    }
+
+    /** Base URLs of the usable instances; the same immutable list until the next change. */
+    public List<String> discoverService(String serviceName) {
+        return view(serviceName).urls();
+    }
+
+    public List<ServiceInstance> discoverInstances(String serviceName) {
+        return view(serviceName).instances();
+    }
+
+    /** DOWN when the registry or the last probe says so, UNKNOWN before the first probe. */
+    public String getServiceHealth(String serviceName, String instanceId) {
+        for (ServiceInstance instance : registry.getAllInstances(serviceName)) {
+            if (instance.getInstanceId().equals(instanceId)) {
+                if (instance.getStatus() == ServiceRegistry.Status.DOWN) {
+                    return Health.DOWN.name();
+                }
+                return healthByUrl.getOrDefault(instance.getUrl(), Health.UNKNOWN).name();
+            }
+        }
+        return Health.UNKNOWN.name();
+    }
+
+    /** Probes every UP instance in parallel and updates the lists of services whose health changed. */
+    @Scheduled(fixedDelayString = "${lfp.discovery.probe-interval:10s}")
+    public void probeAll() {
+        List<ServiceInstance> instances = new ArrayList<>();
+        for (String serviceName : registry.getServiceNames()) {
+            instances.addAll(registry.getInstances(serviceName));
+        }
+        List<CompletableFuture<Health>> probes = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            probes.add(probe(instance));
+        }
+        CompletableFuture.allOf(probes.toArray(new CompletableFuture<?>[0])).join();
+
+        Set<String> changedServices = new HashSet<>();
+        Set<String> probedUrls = new HashSet<>();
+        for (int i = 0; i < instances.size(); i++) {
+            ServiceInstance instance = instances.get(i);
+            Health health = probes.get(i).join();
+            probedUrls.add(instance.getUrl());
+            Health previous = healthByUrl.put(instance.getUrl(), health);
+            if (previous != health && !(previous == null && health == Health.UP)) {
+                changedServices.add(instance.getServiceName());
+                notifyHealthListeners(instance, health);
+            }
+        }
+        healthByUrl.keySet().retainAll(probedUrls);
+        for (String serviceName : changedServices) {
+            views.computeIfPresent(serviceName, (name, view) -> build(registry.getInstances(name)));
+        }
+    }
+
+    public void shutdown() {
+        client.shutdown();
+        executor.close();
+    }
+
+    private View view(String serviceName) {
+        View view = views.get(serviceName);
+        if (view != null) {
+            return view;
+        }
+        // first lookup of a service: seed from the registry, later changes arrive as events
+        List<ServiceInstance> up = registry.getInstances(serviceName);
+        return up.isEmpty() ? View.EMPTY : views.computeIfAbsent(serviceName, name -> build(up));
+    }
+
+    private void refresh(String serviceName, List<ServiceInstance> upInstances) {
+        if (upInstances.isEmpty()) {
+            views.remove(serviceName);
+        } else {
+            views.put(serviceName, build(upInstances));
+        }
+    }
+
+    private View build(List<ServiceInstance> upInstances) {
+        List<ServiceInstance> healthy = new ArrayList<>(upInstances.size());
+        for (ServiceInstance instance : upInstances) {
+            if (healthByUrl.get(instance.getUrl()) != Health.DOWN) {
+                healthy.add(instance);
+            }
+        }
+        List<ServiceInstance> usable = healthy.isEmpty() ? upInstances : healthy;
+        List<String> urls = new ArrayList<>(usable.size());
+        for (ServiceInstance instance : usable) {
+            urls.add(instance.getUrl());
+        }
+        return new View(List.copyOf(usable), List.copyOf(urls));
+    }
+
+    private CompletableFuture<Health> probe(ServiceInstance instance) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(instance.getUrl() + healthPath))
+                .timeout(probeTimeout)
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() / 100 == 2) {
+                        return Health.UP;
+                    }
+                    log.warn("Health probe of {} instance {} failed: {}", instance.getServiceName(),
+                            instance.getInstanceId(), error != null ? error.toString() : "HTTP " + response.statusCode());
+                    return Health.DOWN;
+                });
+    }
+
+    private void notifyHealthListeners(ServiceInstance instance, Health health) {
+        for (HealthListener listener : healthListeners) {
+            try {
+                listener.onHealthChange(instance, health);
+            } catch (RuntimeException ex) {
+                log.error("Health listener failed for instance {}", instance.getInstanceId(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.zanta.lfp.cloud.gateway;
+
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreakerRegistry;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Edge proxy for the services in the registry. A request is authenticated from its bearer token,
+ * charged against the caller's rate budget, admitted by the service's circuit breaker and sent
+ * to the instance picked by the {@link LoadBalancer}.
+ * <p>
+ * Upstream calls go through one shared {@link HttpClient}, which keeps idle HTTP/1.1 connections
+ * per instance and sends asynchronously, so no thread waits on a slow upstream. Request and
+ * response bodies are streamed; the returned future completes as soon as the upstream headers
+ * arrive and the caller copies the body from {@link HttpResponse#body()}.
+ */
+@Slf4j
+public class ApiGateway {
+
+    public record Config(Duration connectTimeout, Duration requestTimeout, RateLimiter.Budget clientBudget) {
+
+        public static Config defaults() {
+            return new Config(Duration.ofSeconds(2), Duration.ofSeconds(30),
+                    RateLimiter.Budget.perMinute(RateLimiter.Mode.TOKEN_BUCKET, 600));
+        }
+    }
+
+    /** Verifies a bearer token and returns its subject; throws when the token is not valid. */
+    @FunctionalInterface
+    public interface TokenVerifier {
+        String verify(String token);
+    }
+
+    /**
+     * Request to proxy. {@code pathAndQuery} is relative to the service root, {@code body} is
+     * only opened when the request has one (see {@link #hasBody()}).
+     */
+    public record GatewayRequest(String method,
+                                 String pathAndQuery,
+                                 Map<String, List<String>> headers,
+                                 String clientAddress,
+                                 long contentLength,
+                                 BodySource body) {
+
+        /**
+         * Whether the request carries a body: a positive Content-Length, or no length (-1, as servlets
+         * report every bodiless GET) together with Transfer-Encoding. Anything else is sent without one.
+         */
+        boolean hasBody() {
+            return contentLength > 0 || (contentLength < 0 && firstHeader("Transfer-Encoding") != null);
+        }
+
+        String firstHeader(String name) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                if (header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                    return header.getValue().get(0);
+                }
+            }
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    public interface BodySource {
+        InputStream open() throws IOException;
+    }
+
+    /** Rejection at the edge; {@code status} is the HTTP status to answer with. */
+    public static class GatewayException extends RuntimeException {
+        private final int status;
+        private final long retryAfterSeconds;
+
+        public GatewayException(int status, String error) {
+            this(status, error, 0);
+        }
+
+        public GatewayException(int status, String error, long retryAfterSeconds) {
+            super(error, null, false, false);
+            this.status = status;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public int getStatus() { return status; }
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+
+    private static final Set<String> HOP_BY_HOP = Set.of(
+            "connection", "keep-alive", "proxy-authenticate", "proxy-authorization", "proxy-connection",
+            "te", "trailer", "transfer-encoding", "upgrade");
+    // HttpClient sets these itself and refuses them from callers; traceparent is replaced with ours
+    private static final Set<String> SET_BY_GATEWAY = Set.of("host", "content-length", "expect", DistributedTracing.TRACEPARENT);
+
+    private static final String BEARER = "bearer ";
+
+    private final LoadBalancer loadBalancer;
+    private final RateLimiter rateLimiter;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final DistributedTracing tracing;
+    private final TokenVerifier tokenVerifier;
+    private final Config config;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    public ApiGateway(LoadBalancer loadBalancer,
+                      RateLimiter rateLimiter,
+                      CircuitBreakerRegistry circuitBreakers,
+                      DistributedTracing tracing,
+                      TokenVerifier tokenVerifier,
+                      Config config) {
+        this.loadBalancer = loadBalancer;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreakers = circuitBreakers;
+        this.tracing = tracing;
+        this.tokenVerifier = tokenVerifier;
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Proxies the request to an instance of {@code serviceName}. Edge rejections are thrown
+     * right away; upstream failures complete the future with a {@link GatewayException}
+     * (502 unreachable, 504 timed out). Upstream 5xx responses are passed through as they are,
+     * but count as failures for the circuit breaker and the balancer.
+     */
+    public CompletableFuture<HttpResponse<InputStream>> routeRequest(String serviceName, GatewayRequest request) {
+        String subject = authenticate(request.firstHeader("Authorization"));
+        if (subject == null) {
+            throw new GatewayException(401, "UNAUTHORIZED");
+        }
+        RateLimiter.Decision decision = rateLimiter.tryAcquire("gateway:" + subject, config.clientBudget());
+        if (!decision.allowed()) {
+            throw new GatewayException(429, "TOO_MANY_REQUESTS", decision.retryAfterSeconds());
+        }
+
+        // the service name is a path segment; only registered services get a breaker and its meters
+        if (!loadBalancer.hasInstances(serviceName)) {
+            throw new GatewayException(404, "SERVICE_NOT_FOUND");
+        }
+        CircuitBreaker.Permit permit = breaker(serviceName).tryAcquirePermission();
+        if (permit == null) {
+            throw new GatewayException(503, "SERVICE_UNAVAILABLE");
+        }
+        LoadBalancer.Instance instance = loadBalancer.select(serviceName);
+        if (instance == null) {
+            GatewayException unavailable = new GatewayException(503, "SERVICE_UNAVAILABLE");
+            permit.onError(unavailable);
+            throw unavailable;
+        }
+
+        HttpRequest upstream;
+        try {
+            upstream = upstreamRequest(instance, request);
+        } catch (IllegalArgumentException ex) {
+            // nothing was sent: keep the instance's latency average as it is
+            loadBalancer.release(instance, (long) instance.ewmaLatencyNanos(), true);
+            permit.onSuccess();
+            throw new GatewayException(400, "BAD_REQUEST");
+        }
+        DistributedTracing.Span span = tracing.currentSpan();
+        if (span != null) {
+            span.tag("gateway.upstream", instance.url());
+        }
+
+        long start = System.nanoTime();
+        return client.sendAsync(upstream, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, error) -> {
+                    long latency = System.nanoTime() - start;
+                    if (error != null) {
+                        GatewayException failure = upstreamFailure(serviceName, instance, error);
+                        loadBalancer.release(instance, latency, false);
+                        permit.onError(failure);
+                        throw failure;
+                    }
+                    boolean success = response.statusCode() < 500;
+                    loadBalancer.release(instance, latency, success);
+                    if (success) {
+                        permit.onSuccess();
+                    } else {
+                        permit.onError(new GatewayException(response.statusCode(), "UPSTREAM_ERROR"));
+                    }
+                    return response;
+                });
+    }
+
+    /** Subject of a valid {@code Authorization: Bearer} header, otherwise null. */
+    public String authenticate(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        try {
+            return tokenVerifier.verify(authorizationHeader.substring(BEARER.length()));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    public boolean authenticateRequest(String token) {
+        return token != null && authenticate(BEARER + token) != null;
+    }
+
+    public boolean checkRateLimit(String clientId) {
+        return rateLimiter.tryAcquire("gateway:" + clientId, config.clientBudget()).allowed();
+    }
+
+    /** Headers that only apply to a single connection and must not be copied across the proxy. */
+    public static boolean isHopByHop(String headerName) {
+        return HOP_BY_HOP.contains(headerName.toLowerCase());
+    }
+
+    public void shutdown() {
+        client.shutdown();
+        executor.close();
+    }
+
+    private CircuitBreaker breaker(String serviceName) {
+        CircuitBreaker breaker = breakers.get(serviceName);
+        return breaker != null ? breaker : breakers.computeIfAbsent(serviceName, s -> circuitBreakers.breaker("gateway-" + s));
+    }
+
+    private HttpRequest upstreamRequest(LoadBalancer.Instance instance, GatewayRequest request) {
+        HttpRequest.BodyPublisher body = !request.hasBody()
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofInputStream(() -> {
+                    try {
+                        return request.body().open();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+        if (request.contentLength() > 0) {
+            body = HttpRequest.BodyPublishers.fromPublisher(body, request.contentLength());
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(instance.url() + request.pathAndQuery()))
+                .timeout(config.requestTimeout());
+        // method("GET", noBody()) would still announce Content-Length: 0
+        if (!request.hasBody() && "GET".equalsIgnoreCase(request.method())) {
+            builder.GET();
+        } else {
+            builder.method(request.method(), body);
+        }
+        request.headers().forEach((name, values) -> {
+            String lowerCase = name.toLowerCase();
+            if (!HOP_BY_HOP.contains(lowerCase) && !SET_BY_GATEWAY.contains(lowerCase)) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        String traceparent = tracing.currentTraceparent();
+        if (traceparent != null) {
+            builder.header(DistributedTracing.TRACEPARENT, traceparent);
+        }
+        builder.header("X-Forwarded-For", forwardedFor(request));
+        return builder.build();
+    }
+
+    private static String forwardedFor(GatewayRequest request) {
+        String previous = request.firstHeader("X-Forwarded-For");
+        return previous == null ? request.clientAddress() : previous + ", " + request.clientAddress();
+    }
+
+    private static GatewayException upstreamFailure(String serviceName, LoadBalancer.Instance instance, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof HttpTimeoutException && !(cause instanceof HttpConnectTimeoutException)) {
+            log.warn("Upstream {} of {} timed out", instance.url(), serviceName);
+            return new GatewayException(504, "GATEWAY_TIMEOUT");
+        }
+        if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+            log.warn("Upstream {} of {} is unreachable: {}", instance.url(), serviceName, cause.toString());
+        } else {
+            log.warn("Upstream call to {} of {} failed", instance.url(), serviceName, cause);
+        }
+        return new GatewayException(502, "BAD_GATEWAY");
+    }
+}
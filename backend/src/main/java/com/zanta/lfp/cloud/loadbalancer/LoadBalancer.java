@@ -0,0 +1,362 @@
+package com.zanta.lfp.cloud.loadbalancer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks an instance of a service for each outbound call. Instances are tracked per URL with
+ * lock-free in-flight counters and an EWMA of observed latency; pools are immutable arrays
+ * swapped on {@link #updateInstances}, so selection never locks or allocates.
+ * <p>
+ * Callers pair {@link #select(String)} with {@link #release(Instance, long, boolean)}: the
+ * balancer counts the call as in flight from selection until release. Instances marked
+ * unhealthy, explicitly or after repeated failures, are skipped until their cooldown expires.
+ * When every instance is unhealthy the balancer fails open and ignores health.
+ */
+public class LoadBalancer {
+
+    public enum LoadBalancingStrategy {
+        ROUND_ROBIN,
+        RANDOM,
+        LEAST_CONNECTIONS,
+        WEIGHTED_ROUND_ROBIN,
+        POWER_OF_TWO_CHOICES
+    }
+
+    private static final String DEFAULT_SERVICE = "";
+    private static final double EWMA_ALPHA = 0.2;
+    private static final int FAILURES_BEFORE_UNHEALTHY = 3;
+    private static final int MAX_WEIGHT = 100;
+    private static final long HEALTHY = Long.MIN_VALUE;
+    // failed a health probe: skipped until a probe passes, whatever the clock says
+    private static final long DOWN = Long.MAX_VALUE;
+
+    public static final class Instance {
+        private final String url;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile int weight;
+        // written without CAS: a lost sample only delays the average by one call
+        private volatile double ewmaLatencyNanos;
+        private volatile long unhealthyUntil = HEALTHY;
+
+        private Instance(String url, int weight) {
+            this.url = url;
+            this.weight = weight;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public int weight() {
+            return weight;
+        }
+
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        public double ewmaLatencyNanos() {
+            return ewmaLatencyNanos;
+        }
+
+        private boolean isHealthy(long now) {
+            long until = unhealthyUntil;
+            return until == HEALTHY || (until != DOWN && now - until >= 0);
+        }
+
+        // expected wait if we add one more call; unmeasured instances score 0 and get tried first
+        private double score() {
+            return ewmaLatencyNanos * (inFlight.get() + 1);
+        }
+    }
+
+    private static final class Pool {
+        final Instance[] instances;
+        final int[] weightedSchedule;
+        final AtomicLong cursor = new AtomicLong();
+
+        Pool(Instance[] instances) {
+            this.instances = instances;
+            this.weightedSchedule = smoothWeightedSchedule(instances);
+        }
+    }
+
+    private final ConcurrentHashMap<String, Pool> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Instance> instancesByUrl = new ConcurrentHashMap<>();
+    // a lock rather than synchronized, so registry callbacks on virtual threads never pin a carrier
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final long unhealthyCooldownNanos;
+    private final LongSupplier clock;
+    private volatile LoadBalancingStrategy strategy;
+
+    public LoadBalancer() {
+        this(LoadBalancingStrategy.ROUND_ROBIN, Duration.ofSeconds(30));
+    }
+
+    public LoadBalancer(LoadBalancingStrategy strategy, Duration unhealthyCooldown) {
+        this(strategy, unhealthyCooldown, System::nanoTime);
+    }
+
+    LoadBalancer(LoadBalancingStrategy strategy, Duration unhealthyCooldown, LongSupplier clock) {
+        this.strategy = strategy;
+        this.unhealthyCooldownNanos = unhealthyCooldown.toNanos();
+        this.clock = clock;
+    }
+
+    public void updateInstances(String service, List<String> urls) {
+        Map<String, Integer> weighted = new LinkedHashMap<>();
+        for (String url : urls) {
+            weighted.put(url, 1);
+        }
+        updateWeightedInstances(service, weighted);
+    }
+
+    /**
+     * Replaces the pool of a service; instances already known by URL keep their statistics.
+     * Updates are serialized, selection keeps reading the previous pool until the swap.
+     */
+    public void updateWeightedInstances(String service, Map<String, Integer> weightedUrls) {
+        updateLock.lock();
+        try {
+            List<Instance> instances = new ArrayList<>(weightedUrls.size());
+            weightedUrls.forEach((url, weight) -> {
+                int clamped = Math.max(1, Math.min(weight, MAX_WEIGHT));
+                Instance instance = instancesByUrl.computeIfAbsent(url, u -> new Instance(u, clamped));
+                instance.weight = clamped;
+                instances.add(instance);
+            });
+            if (instances.isEmpty()) {
+                pools.remove(service);
+            } else {
+                pools.put(service, new Pool(instances.toArray(new Instance[0])));
+            }
+            forgetUnusedInstances();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    public void removeService(String service) {
+        updateLock.lock();
+        try {
+            pools.remove(service);
+            forgetUnusedInstances();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /** Whether the service currently has a pool; services without instances have none. */
+    public boolean hasInstances(String service) {
+        return pools.containsKey(service);
+    }
+
+    /**
+     * Chooses an instance and counts the call as in flight; returns null when the service has
+     * no instances. Every non-null result must be passed to {@link #release} once the call ends.
+     */
+    public Instance select(String service) {
+        Pool pool = pools.get(service);
+        if (pool == null) {
+            return null;
+        }
+        Instance instance = choose(pool, clock.getAsLong());
+        instance.inFlight.incrementAndGet();
+        return instance;
+    }
+
+    public void release(Instance instance, long latencyNanos, boolean success) {
+        instance.inFlight.decrementAndGet();
+        double ewma = instance.ewmaLatencyNanos;
+        instance.ewmaLatencyNanos = ewma == 0 ? latencyNanos : ewma + EWMA_ALPHA * (latencyNanos - ewma);
+        if (success) {
+            if (instance.consecutiveFailures.get() != 0) {
+                instance.consecutiveFailures.set(0);
+            }
+        } else if (instance.consecutiveFailures.incrementAndGet() >= FAILURES_BEFORE_UNHEALTHY) {
+            instance.consecutiveFailures.set(0);
+            markUnhealthy(instance.url);
+        }
+    }
+
+    public String selectInstance(List<String> serviceInstances) {
+        if (serviceInstances == null || serviceInstances.isEmpty()) {
+            return null;
+        }
+        Pool pool = pools.get(DEFAULT_SERVICE);
+        if (pool == null || !sameUrls(pool, serviceInstances)) {
+            updateInstances(DEFAULT_SERVICE, serviceInstances);
+            pool = pools.get(DEFAULT_SERVICE);
+        }
+        return choose(pool, clock.getAsLong()).url;
+    }
+
+    public void setStrategy(LoadBalancingStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public LoadBalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** Skips the instance for the cooldown, after failed calls; an instance already down stays down. */
+    public void markUnhealthy(String instanceUrl) {
+        Instance instance = instancesByUrl.get(instanceUrl);
+        if (instance != null && instance.unhealthyUntil != DOWN) {
+            instance.unhealthyUntil = clock.getAsLong() + unhealthyCooldownNanos;
+        }
+    }
+
+    /**
+     * Skips the instance until {@link #markHealthy} is called. Health probes only report changes,
+     * so a failed probe must keep the instance out for as long as it stays failed, not a cooldown.
+     */
+    public void markDown(String instanceUrl) {
+        Instance instance = instancesByUrl.get(instanceUrl);
+        if (instance != null) {
+            instance.unhealthyUntil = DOWN;
+        }
+    }
+
+    public void markHealthy(String instanceUrl) {
+        Instance instance = instancesByUrl.get(instanceUrl);
+        if (instance != null) {
+            instance.unhealthyUntil = HEALTHY;
+        }
+    }
+
+    public List<Instance> instances(String service) {
+        Pool pool = pools.get(service);
+        return pool == null ? List.of() : List.of(pool.instances);
+    }
+
+    private Instance choose(Pool pool, long now) {
+        Instance[] instances = pool.instances;
+        int n = instances.length;
+        if (n == 1) {
+            return instances[0];
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> firstHealthy(instances, (int) (pool.cursor.getAndIncrement() % n), now);
+            case RANDOM -> firstHealthy(instances, ThreadLocalRandom.current().nextInt(n), now);
+            case WEIGHTED_ROUND_ROBIN -> {
+                int[] schedule = pool.weightedSchedule;
+                yield firstHealthy(instances, schedule[(int) (pool.cursor.getAndIncrement() % schedule.length)], now);
+            }
+            case LEAST_CONNECTIONS -> leastConnections(instances, (int) (pool.cursor.getAndIncrement() % n), now);
+            case POWER_OF_TWO_CHOICES -> powerOfTwoChoices(instances, now);
+        };
+    }
+
+    private static Instance firstHealthy(Instance[] instances, int start, long now) {
+        int n = instances.length;
+        for (int i = 0; i < n; i++) {
+            Instance candidate = instances[(start + i) % n];
+            if (candidate.isHealthy(now)) {
+                return candidate;
+            }
+        }
+        return instances[start];
+    }
+
+    // scanning from a rotating offset spreads ties instead of piling them on the first instance
+    private static Instance leastConnections(Instance[] instances, int start, long now) {
+        int n = instances.length;
+        Instance best = null;
+        int bestInFlight = Integer.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            Instance candidate = instances[(start + i) % n];
+            int inFlight = candidate.inFlight.get();
+            if (inFlight < bestInFlight && candidate.isHealthy(now)) {
+                best = candidate;
+                bestInFlight = inFlight;
+            }
+        }
+        return best != null ? best : instances[start];
+    }
+
+    private static Instance powerOfTwoChoices(Instance[] instances, long now) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int n = instances.length;
+        int first = random.nextInt(n);
+        int second = random.nextInt(n - 1);
+        if (second >= first) {
+            second++;
+        }
+        Instance a = instances[first];
+        Instance b = instances[second];
+        boolean aHealthy = a.isHealthy(now);
+        boolean bHealthy = b.isHealthy(now);
+        if (aHealthy && bHealthy) {
+            return a.score() <= b.score() ? a : b;
+        }
+        if (aHealthy) {
+            return a;
+        }
+        if (bHealthy) {
+            return b;
+        }
+        return firstHealthy(instances, first, now);
+    }
+
+    private void forgetUnusedInstances() {
+        Set<String> inUse = new HashSet<>();
+        for (Pool pool : pools.values()) {
+            for (Instance instance : pool.instances) {
+                inUse.add(instance.url);
+            }
+        }
+        instancesByUrl.keySet().retainAll(inUse);
+    }
+
+    private static boolean sameUrls(Pool pool, List<String> urls) {
+        if (pool.instances.length != urls.size()) {
+            return false;
+        }
+        for (int i = 0; i < pool.instances.length; i++) {
+            if (!pool.instances[i].url.equals(urls.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Precomputes one cycle of nginx-style smooth weighted round robin: every step each instance
+     * gains its weight, the highest current value is picked and loses the total. Weights 5,1,1
+     * give a a b a c a a rather than a a a a a b c.
+     */
+    private static int[] smoothWeightedSchedule(Instance[] instances) {
+        int total = 0;
+        for (Instance instance : instances) {
+            total += instance.weight;
+        }
+        int[] schedule = new int[total];
+        int[] current = new int[instances.length];
+        for (int step = 0; step < total; step++) {
+            int best = 0;
+            for (int i = 0; i < instances.length; i++) {
+                current[i] += instances[i].weight;
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            schedule[step] = best;
+        }
+        return schedule;
+    }
+}
@@ -0,0 +1,335 @@
+package com.zanta.lfp.cloud.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process publish/subscribe bus. Every subscriber owns a bounded lock-free ring and a
+ * virtual thread that drains it in batches, so publishing is a few CAS operations per
+ * subscriber and a slow handler only ever backs up its own ring.
+ * <p>
+ * What happens when a ring is full is decided per topic: {@link Backpressure#BLOCK} waits up
+ * to the block timeout for space, {@link Backpressure#DROP} discards the message for that
+ * subscriber and {@link Backpressure#FAIL} throws {@link MessageQueueFullException}.
+ * Messages published to a topic without subscribers are counted and discarded.
+ */
+@Slf4j
+public class MessageQueue {
+
+    public enum Backpressure {
+        BLOCK,
+        DROP,
+        FAIL
+    }
+
+    public record TopicConfig(int capacity, int batchSize, Backpressure backpressure, Duration blockTimeout) {
+
+        public TopicConfig {
+            if (capacity <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Topic capacity and batch size must be positive");
+            }
+            if (backpressure == null) {
+                throw new IllegalArgumentException("Topic backpressure mode is required");
+            }
+        }
+
+        public static TopicConfig defaults() {
+            return new TopicConfig(8192, 64, Backpressure.DROP, Duration.ofSeconds(1));
+        }
+    }
+
+    public static class Message {
+        private final String topic;
+        private final Object payload;
+        private final Map<String, String> headers;
+        private final long publishedAtNanos;
+
+        public Message(String topic, Object payload) {
+            this(topic, payload, Map.of());
+        }
+
+        public Message(String topic, Object payload, Map<String, String> headers) {
+            this.topic = topic;
+            this.payload = payload;
+            this.headers = headers;
+            this.publishedAtNanos = System.nanoTime();
+        }
+
+        public String getTopic() { return topic; }
+        public Object getPayload() { return payload; }
+        public Map<String, String> getHeaders() { return headers; }
+        public long getPublishedAtNanos() { return publishedAtNanos; }
+    }
+
+    @FunctionalInterface
+    public interface MessageHandler {
+        void handle(Message message);
+    }
+
+    @FunctionalInterface
+    public interface BatchHandler {
+        void handle(List<Message> batch);
+    }
+
+    public interface Subscription {
+        /** Stops the subscription once the messages already queued for it are delivered. */
+        void cancel();
+    }
+
+    public static class MessageQueueFullException extends RuntimeException {
+        public MessageQueueFullException(String topic) {
+            super("Message queue topic '" + topic + "' is full");
+        }
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_BLOCK_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+    private final TopicConfig defaults;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running = true;
+
+    public MessageQueue() {
+        this(TopicConfig.defaults(), new SimpleMeterRegistry());
+    }
+
+    public MessageQueue(TopicConfig defaults, MeterRegistry meterRegistry) {
+        this.defaults = defaults;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Creates a topic with its own settings; has no effect if the topic already exists. */
+    public void declareTopic(String topic, TopicConfig config) {
+        topics.computeIfAbsent(topic, name -> new Topic(name, config));
+    }
+
+    public boolean publish(String topic, Object message) {
+        return publish(topic, message, Map.of());
+    }
+
+    /**
+     * Hands the message to every subscriber of the topic. Returns false when the queue is shut
+     * down or at least one subscriber dropped it.
+     */
+    public boolean publish(String topic, Object message, Map<String, String> headers) {
+        if (!running) {
+            return false;
+        }
+        return topic(topic).publish(new Message(topic, message, headers));
+    }
+
+    public Subscription subscribe(String topic, MessageHandler handler) {
+        return topic(topic).subscribe(handler, null);
+    }
+
+    /** Delivers up to the topic's batch size of messages per call, in publish order. */
+    public Subscription subscribeBatch(String topic, BatchHandler handler) {
+        return topic(topic).subscribe(null, handler);
+    }
+
+    /** Messages waiting across all subscribers of the topic. */
+    public long lag(String topic) {
+        Topic existing = topics.get(topic);
+        return existing == null ? 0 : existing.lag();
+    }
+
+    /**
+     * Stops accepting messages and lets every subscriber drain what is already queued,
+     * waiting up to five seconds in total.
+     */
+    public void shutdown() {
+        running = false;
+        List<Subscriber> subscribers = new ArrayList<>();
+        topics.values().forEach(topic -> subscribers.addAll(topic.subscribers));
+        subscribers.forEach(Subscriber::cancel);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try {
+            for (Subscriber subscriber : subscribers) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !subscriber.thread.join(Duration.ofNanos(remaining))) {
+                    log.warn("Message queue shut down with undelivered messages on topic '{}'", subscriber.topic.name);
+                    break;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Topic topic(String name) {
+        Topic topic = topics.get(name);
+        return topic != null ? topic : topics.computeIfAbsent(name, n -> new Topic(n, defaults));
+    }
+
+    private final class Topic {
+        final String name;
+        final TopicConfig config;
+        final CopyOnWriteArrayList<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        final Counter published;
+        final Counter delivered;
+        final Counter dropped;
+        final Counter failed;
+
+        Topic(String name, TopicConfig config) {
+            this.name = name;
+            this.config = config;
+            this.published = counter("lfp.messaging.published");
+            this.delivered = counter("lfp.messaging.delivered");
+            this.dropped = counter("lfp.messaging.dropped");
+            this.failed = counter("lfp.messaging.handler.failures");
+            Gauge.builder("lfp.messaging.lag", this, Topic::lag)
+                    .tag("topic", name)
+                    .register(meterRegistry);
+        }
+
+        boolean publish(Message message) {
+            published.increment();
+            boolean accepted = true;
+            for (Subscriber subscriber : subscribers) {
+                accepted &= subscriber.offer(message);
+            }
+            return accepted;
+        }
+
+        Subscription subscribe(MessageHandler handler, BatchHandler batchHandler) {
+            Subscriber subscriber = new Subscriber(this, handler, batchHandler);
+            subscribers.add(subscriber);
+            subscriber.thread.start();
+            return subscriber;
+        }
+
+        long lag() {
+            long lag = 0;
+            for (Subscriber subscriber : subscribers) {
+                lag += subscriber.ring.size();
+            }
+            return lag;
+        }
+
+        private Counter counter(String meter) {
+            return Counter.builder(meter).tag("topic", name).register(meterRegistry);
+        }
+    }
+
+    private final class Subscriber implements Subscription, Runnable {
+        final Topic topic;
+        final MessageHandler handler;
+        final BatchHandler batchHandler;
+        final MpscRingBuffer<Message> ring;
+        final Thread thread;
+        volatile boolean active = true;
+        volatile boolean parked;
+
+        Subscriber(Topic topic, MessageHandler handler, BatchHandler batchHandler) {
+            this.topic = topic;
+            this.handler = handler;
+            this.batchHandler = batchHandler;
+            this.ring = new MpscRingBuffer<>(topic.config.capacity());
+            this.thread = Thread.ofVirtual().name("mq-" + topic.name).unstarted(this);
+        }
+
+        boolean offer(Message message) {
+            if (ring.offer(message)) {
+                wakeUp();
+                return true;
+            }
+            switch (topic.config.backpressure()) {
+                case DROP:
+                    topic.dropped.increment();
+                    return false;
+                case FAIL:
+                    topic.dropped.increment();
+                    throw new MessageQueueFullException(topic.name);
+                default:
+                    return offerBlocking(message);
+            }
+        }
+
+        private boolean offerBlocking(Message message) {
+            long deadline = System.nanoTime() + topic.config.blockTimeout().toNanos();
+            long backoff = 1_000;
+            while (active) {
+                LockSupport.parkNanos(backoff);
+                if (ring.offer(message)) {
+                    wakeUp();
+                    return true;
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BLOCK_BACKOFF_NANOS);
+            }
+            topic.dropped.increment();
+            throw new MessageQueueFullException(topic.name);
+        }
+
+        private void wakeUp() {
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Message> batch = new ArrayList<>(topic.config.batchSize());
+            while (true) {
+                ring.drainTo(batch, topic.config.batchSize());
+                if (batch.isEmpty()) {
+                    if (!active) {
+                        return;
+                    }
+                    // publishers check the flag after enqueueing, so one of us always sees the other
+                    parked = true;
+                    if (ring.isEmpty() && active) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                    continue;
+                }
+                deliver(batch);
+                topic.delivered.increment(batch.size());
+                batch.clear();
+            }
+        }
+
+        private void deliver(List<Message> batch) {
+            if (batchHandler != null) {
+                try {
+                    batchHandler.handle(List.copyOf(batch));
+                } catch (RuntimeException ex) {
+                    topic.failed.increment();
+                    log.error("Message handler failed on topic '{}' for a batch of {}", topic.name, batch.size(), ex);
+                }
+                return;
+            }
+            for (Message message : batch) {
+                try {
+                    handler.handle(message);
+                } catch (RuntimeException ex) {
+                    topic.failed.increment();
+                    log.error("Message handler failed on topic '{}'", topic.name, ex);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            active = false;
+            topic.subscribers.remove(this);
+            LockSupport.unpark(thread);
+        }
+    }
+}
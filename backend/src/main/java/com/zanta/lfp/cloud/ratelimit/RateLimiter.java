@@ -0,0 +1,276 @@
+package com.zanta.lfp.cloud.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client request limiter. Each key owns a small lock-free state object updated with CAS,
+ * so concurrent decisions for different clients never contend and decisions for the same
+ * client never block.
+ * <p>
+ * {@link Mode#TOKEN_BUCKET} is a GCRA bucket held in a single {@code long}: it admits a burst
+ * of {@code maxRequests} and then refills one request every {@code window / maxRequests}.
+ * {@link Mode#SLIDING_WINDOW_LOG} keeps the timestamps of the last {@code maxRequests}
+ * admissions and is exact over any window, at the cost of one {@code long} per allowed request.
+ * <p>
+ * Clients whose budget has fully recovered and that stayed quiet for the idle timeout are
+ * evicted, so the map only holds recently active clients.
+ */
+public class RateLimiter {
+
+    public enum Mode {
+        TOKEN_BUCKET,
+        SLIDING_WINDOW_LOG
+    }
+
+    public record Budget(Mode mode, int maxRequests, Duration window) {
+
+        public Budget {
+            if (mode == null) {
+                throw new IllegalArgumentException("Rate limit mode is required");
+            }
+            if (maxRequests <= 0) {
+                throw new IllegalArgumentException("Rate limit must allow at least one request");
+            }
+            if (window == null || window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("Rate limit window must be positive");
+            }
+        }
+
+        public static Budget tokenBucket(int maxRequests, Duration window) {
+            return new Budget(Mode.TOKEN_BUCKET, maxRequests, window);
+        }
+
+        public static Budget slidingWindow(int maxRequests, Duration window) {
+            return new Budget(Mode.SLIDING_WINDOW_LOG, maxRequests, window);
+        }
+
+        public static Budget perMinute(Mode mode, int maxRequests) {
+            return new Budget(mode, maxRequests, Duration.ofMinutes(1));
+        }
+    }
+
+    public record Decision(boolean allowed, long retryAfterNanos) {
+
+        private static final Decision ALLOWED = new Decision(true, 0);
+
+        static Decision allow() {
+            return ALLOWED;
+        }
+
+        static Decision deny(long retryAfterNanos) {
+            return new Decision(false, Math.max(retryAfterNanos, 1));
+        }
+
+        public long retryAfterSeconds() {
+            return (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+
+    private final ConcurrentHashMap<String, ClientState> clients = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final LongSupplier clock;
+
+    public RateLimiter() {
+        this(Duration.ofMinutes(10));
+    }
+
+    public RateLimiter(Duration idleTimeout) {
+        this(idleTimeout, System::nanoTime);
+    }
+
+    RateLimiter(Duration idleTimeout, LongSupplier clock) {
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Records one request for {@code key} against {@code budget}. Callers that apply several
+     * budgets to the same client should namespace the key per budget.
+     */
+    public Decision tryAcquire(String key, Budget budget) {
+        long now = clock.getAsLong();
+        ClientState state = clients.get(key);
+        if (state == null || (state.budget != budget && !state.budget.equals(budget))) {
+            state = clients.compute(key, (k, existing) ->
+                    existing != null && existing.budget.equals(budget) ? existing : newState(budget, now));
+        }
+        return state.tryAcquire(now);
+    }
+
+    public boolean isAllowed(String clientId, int maxRequests, long windowSizeMs) {
+        return tryAcquire(clientId, Budget.tokenBucket(maxRequests, Duration.ofMillis(windowSizeMs))).allowed();
+    }
+
+    public int getRemainingRequests(String clientId) {
+        ClientState state = clients.get(clientId);
+        if (state == null) {
+            return 0;
+        }
+        return state.remaining(clock.getAsLong());
+    }
+
+    public void reset(String clientId) {
+        clients.remove(clientId);
+    }
+
+    /**
+     * Drops clients that are back to a full budget and have been idle for the idle timeout.
+     * A request racing with the removal is admitted against the detached state, which can
+     * only ever grant a client one request beyond a full budget.
+     */
+    @Scheduled(fixedDelayString = "${lfp.rate-limit.eviction-interval:1m}")
+    public void evictIdle() {
+        long now = clock.getAsLong();
+        clients.forEach((key, state) -> {
+            if (state.idleSince(now) >= idleTimeoutNanos) {
+                clients.remove(key, state);
+            }
+        });
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    private static ClientState newState(Budget budget, long now) {
+        return budget.mode() == Mode.TOKEN_BUCKET
+                ? new TokenBucket(budget, now)
+                : new SlidingWindowLog(budget);
+    }
+
+    private abstract static class ClientState {
+        final Budget budget;
+        final long windowNanos;
+
+        ClientState(Budget budget) {
+            this.budget = budget;
+            this.windowNanos = budget.window().toNanos();
+        }
+
+        abstract Decision tryAcquire(long now);
+
+        abstract int remaining(long now);
+
+        /** Nanoseconds since the budget became full again, negative while it is still recovering. */
+        abstract long idleSince(long now);
+    }
+
+    /**
+     * Generic cell rate algorithm: {@code tat} is the theoretical arrival time of the next
+     * request if the client kept sending at exactly the refill rate. A request is admitted
+     * as long as that time is no more than one window ahead of now.
+     */
+    private static final class TokenBucket extends ClientState {
+        private final long emissionInterval;
+        private final AtomicLong tat;
+
+        TokenBucket(Budget budget, long now) {
+            super(budget);
+            this.emissionInterval = Math.max(windowNanos / budget.maxRequests(), 1);
+            this.tat = new AtomicLong(now);
+        }
+
+        @Override
+        Decision tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + emissionInterval;
+                long allowAt = next - windowNanos;
+                if (allowAt > now) {
+                    return Decision.deny(allowAt - now);
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return Decision.allow();
+                }
+            }
+        }
+
+        @Override
+        int remaining(long now) {
+            long backlog = Math.max(tat.get() - now, 0);
+            return (int) Math.max((windowNanos - backlog) / emissionInterval, 0);
+        }
+
+        @Override
+        long idleSince(long now) {
+            return now - tat.get();
+        }
+    }
+
+    /**
+     * Ring of the last {@code maxRequests} admission times. The slot under the cursor holds
+     * the oldest admission; a request is allowed once that one has left the window. The slot
+     * is reserved with a CAS before the cursor moves so two threads can never both reuse it.
+     */
+    private static final class SlidingWindowLog extends ClientState {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private static final long PENDING = Long.MIN_VALUE + 1;
+
+        private final AtomicLongArray log;
+        private final AtomicLong cursor = new AtomicLong();
+
+        SlidingWindowLog(Budget budget) {
+            super(budget);
+            this.log = new AtomicLongArray(budget.maxRequests());
+            for (int i = 0; i < budget.maxRequests(); i++) {
+                log.lazySet(i, EMPTY);
+            }
+        }
+
+        @Override
+        Decision tryAcquire(long now) {
+            while (true) {
+                long sequence = cursor.get();
+                int slot = (int) (sequence % log.length());
+                long oldest = log.get(slot);
+                if (oldest == PENDING) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (oldest != EMPTY && now - oldest < windowNanos) {
+                    return Decision.deny(oldest + windowNanos - now);
+                }
+                if (!log.compareAndSet(slot, oldest, PENDING)) {
+                    continue;
+                }
+                if (cursor.compareAndSet(sequence, sequence + 1)) {
+                    log.set(slot, now);
+                    return Decision.allow();
+                }
+                log.set(slot, oldest);
+            }
+        }
+
+        @Override
+        int remaining(long now) {
+            int free = 0;
+            for (int i = 0; i < log.length(); i++) {
+                long at = log.get(i);
+                if (at == EMPTY || (at != PENDING && now - at >= windowNanos)) {
+                    free++;
+                }
+            }
+            return free;
+        }
+
+        @Override
+        long idleSince(long now) {
+            long sequence = cursor.get();
+            if (sequence == 0) {
+                return Long.MAX_VALUE;
+            }
+            long newest = log.get((int) ((sequence - 1) % log.length()));
+            if (newest == PENDING) {
+                return -1;
+            }
+            return now - newest - windowNanos;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.zanta.lfp.cloud.registry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Registry of service instances kept alive by heartbeats. Each service is published as an
+ * immutable snapshot; writers build a new snapshot inside {@code compute} and readers only ever
+ * do a map lookup, so {@link #getInstances} never locks or copies.
+ * <p>
+ * Heartbeats just stamp the instance. A scheduled sweep marks instances DOWN once their
+ * heartbeat is older than the down timeout and evicts them after the evict timeout; a heartbeat
+ * from a DOWN instance brings it back UP. Listeners are told whenever the UP set of a service
+ * changes.
+ */
+@Slf4j
+public class ServiceRegistry {
+
+    public enum Status {
+        UP,
+        DOWN
+    }
+
+    public static class ServiceInstance {
+        private final String instanceId;
+        private final String serviceName;
+        private final String host;
+        private final int port;
+        private final int weight;
+        private final String url;
+        private volatile Status status = Status.UP;
+        private volatile long lastHeartbeatNanos;
+
+        public ServiceInstance(String instanceId, String serviceName, String host, int port) {
+            this(instanceId, serviceName, host, port, 1);
+        }
+
+        public ServiceInstance(String instanceId, String serviceName, String host, int port, int weight) {
+            this.instanceId = instanceId;
+            this.serviceName = serviceName;
+            this.host = host;
+            this.port = port;
+            this.weight = weight;
+            this.url = "http://" + host + ":" + port;
+        }
+
+        public String getInstanceId() { return instanceId; }
+        public String getServiceName() { return serviceName; }
+        public String getHost() { return host; }
+        public int getPort() { return port; }
+        public int getWeight() { return weight; }
+        public Status getStatus() { return status; }
+        public long getLastHeartbeatNanos() { return lastHeartbeatNanos; }
+        public String getUrl() { return url; }
+    }
+
+    @FunctionalInterface
+    public interface RegistryListener {
+        /** Called with the current UP instances of a service after they changed. */
+        void onChange(String serviceName, List<ServiceInstance> upInstances);
+    }
+
+    private record Snapshot(Map<String, ServiceInstance> byId, List<ServiceInstance> up, List<ServiceInstance> all) {
+
+        static final Snapshot EMPTY = new Snapshot(Map.of(), List.of(), List.of());
+
+        static Snapshot of(Map<String, ServiceInstance> byId) {
+            List<ServiceInstance> up = new ArrayList<>(byId.size());
+            for (ServiceInstance instance : byId.values()) {
+                if (instance.status == Status.UP) {
+                    up.add(instance);
+                }
+            }
+            return new Snapshot(Map.copyOf(byId), List.copyOf(up), List.copyOf(byId.values()));
+        }
+
+        Map<String, ServiceInstance> mutableCopy() {
+            Map<String, ServiceInstance> copy = new LinkedHashMap<>();
+            for (ServiceInstance instance : all) {
+                copy.put(instance.instanceId, instance);
+            }
+            return copy;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Snapshot> services = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<RegistryListener> listeners = new CopyOnWriteArrayList<>();
+    // listeners may block, and a monitor held across a blocking call pins a virtual thread's carrier
+    private final ReentrantLock notificationLock = new ReentrantLock();
+    private final long downAfterNanos;
+    private final long evictAfterNanos;
+    private final LongSupplier clock;
+
+    public ServiceRegistry() {
+        this(Duration.ofSeconds(15), Duration.ofSeconds(60));
+    }
+
+    public ServiceRegistry(Duration downAfter, Duration evictAfter) {
+        this(downAfter, evictAfter, System::nanoTime);
+    }
+
+    ServiceRegistry(Duration downAfter, Duration evictAfter, LongSupplier clock) {
+        this.downAfterNanos = downAfter.toNanos();
+        this.evictAfterNanos = evictAfter.toNanos();
+        this.clock = clock;
+    }
+
+    public void addListener(RegistryListener listener) {
+        listeners.add(listener);
+    }
+
+    /** Registers or replaces an instance; it starts UP with a fresh heartbeat. */
+    public void register(ServiceInstance instance) {
+        instance.status = Status.UP;
+        instance.lastHeartbeatNanos = clock.getAsLong();
+        services.compute(instance.serviceName, (name, snapshot) -> {
+            Map<String, ServiceInstance> byId = snapshot == null ? new LinkedHashMap<>() : snapshot.mutableCopy();
+            byId.put(instance.instanceId, instance);
+            return Snapshot.of(byId);
+        });
+        log.info("Registered {} instance {} at {}", instance.serviceName, instance.instanceId, instance.url);
+        notifyListeners(instance.serviceName);
+    }
+
+    public void deregister(String serviceName, String instanceId) {
+        Snapshot snapshot = services.get(serviceName);
+        if (snapshot == null || !snapshot.byId.containsKey(instanceId)) {
+            return;
+        }
+        services.computeIfPresent(serviceName, (name, current) -> {
+            Map<String, ServiceInstance> byId = current.mutableCopy();
+            byId.remove(instanceId);
+            return byId.isEmpty() ? null : Snapshot.of(byId);
+        });
+        log.info("Deregistered {} instance {}", serviceName, instanceId);
+        notifyListeners(serviceName);
+    }
+
+    /** UP instances of the service, as an immutable list shared by all readers. */
+    public List<ServiceInstance> getInstances(String serviceName) {
+        return services.getOrDefault(serviceName, Snapshot.EMPTY).up;
+    }
+
+    /** UP and DOWN instances that have not been evicted yet. */
+    public List<ServiceInstance> getAllInstances(String serviceName) {
+        return services.getOrDefault(serviceName, Snapshot.EMPTY).all;
+    }
+
+    public List<String> getServiceNames() {
+        return List.copyOf(services.keySet());
+    }
+
+    /** Returns false if the instance is unknown, so the caller knows to register again. */
+    public boolean receiveHeartbeat(String serviceName, String instanceId) {
+        ServiceInstance instance = services.getOrDefault(serviceName, Snapshot.EMPTY).byId.get(instanceId);
+        if (instance == null) {
+            return false;
+        }
+        instance.lastHeartbeatNanos = clock.getAsLong();
+        if (instance.status == Status.DOWN) {
+            setStatus(instance, Status.UP);
+        }
+        return true;
+    }
+
+    public void markDown(String serviceName, String instanceId) {
+        ServiceInstance instance = services.getOrDefault(serviceName, Snapshot.EMPTY).byId.get(instanceId);
+        if (instance != null && instance.status == Status.UP) {
+            setStatus(instance, Status.DOWN);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${lfp.registry.sweep-interval:5s}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        for (String serviceName : services.keySet()) {
+            Snapshot before = services.get(serviceName);
+            Snapshot after = services.computeIfPresent(serviceName, (name, snapshot) -> expire(snapshot, now));
+            if (before != after) {
+                notifyListeners(serviceName);
+            }
+        }
+    }
+
+    private Snapshot expire(Snapshot snapshot, long now) {
+        boolean changed = false;
+        Map<String, ServiceInstance> byId = snapshot.mutableCopy();
+        for (ServiceInstance instance : snapshot.all) {
+            long silence = now - instance.lastHeartbeatNanos;
+            if (silence >= evictAfterNanos) {
+                byId.remove(instance.instanceId);
+                changed = true;
+                log.warn("Evicted {} instance {} after {} ms without heartbeat",
+                        instance.serviceName, instance.instanceId, silence / 1_000_000);
+            } else if (silence >= downAfterNanos && instance.status == Status.UP) {
+                instance.status = Status.DOWN;
+                changed = true;
+                log.warn("Marked {} instance {} DOWN after {} ms without heartbeat",
+                        instance.serviceName, instance.instanceId, silence / 1_000_000);
+            }
+        }
+        if (!changed) {
+            return snapshot;
+        }
+        return byId.isEmpty() ? null : Snapshot.of(byId);
+    }
+
+    private void setStatus(ServiceInstance instance, Status status) {
+        boolean[] changed = new boolean[1];
+        services.computeIfPresent(instance.serviceName, (name, snapshot) -> {
+            if (snapshot.byId.get(instance.instanceId) != instance || instance.status == status) {
+                return snapshot;
+            }
+            instance.status = status;
+            changed[0] = true;
+            return Snapshot.of(snapshot.mutableCopy());
+        });
+        if (changed[0]) {
+            log.info("{} instance {} is {}", instance.serviceName, instance.instanceId, status);
+            notifyListeners(instance.serviceName);
+        }
+    }
+
+    // serialized and always reading the latest snapshot, so the last call a listener sees is current
+    private void notifyListeners(String serviceName) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        notificationLock.lock();
+        try {
+            List<ServiceInstance> up = getInstances(serviceName);
+            for (RegistryListener listener : listeners) {
+                try {
+                    listener.onChange(serviceName, up);
+                } catch (RuntimeException ex) {
+                    log.error("Registry listener failed for service {}", serviceName, ex);
+                }
+            }
+        } finally {
+            notificationLock.unlock();
+        }
+    }
+}
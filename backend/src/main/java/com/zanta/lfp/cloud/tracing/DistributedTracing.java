@@ -0,0 +1,365 @@
+package com.zanta.lfp.cloud.tracing;
+
+import com.zanta.lfp.cloud.messaging.MpscRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process tracer. Ids are random 64-bit values from {@link ThreadLocalRandom}, timings use
+ * {@link System#nanoTime()} and the current span is tracked per thread.
+ * <p>
+ * Finished spans are kept on their trace until the local root span ends, then the whole trace is
+ * kept or dropped at once: it is exported when the head decision sampled it (the sampled flag of a
+ * trusted caller's {@code traceparent}, otherwise {@code headSampleRate}), when the root took at least the tail
+ * latency threshold, or when any span failed. Kept spans go into a lock-free ring that a
+ * scheduled flush drains in batches into the {@link SpanExporter}; if the ring is full, spans
+ * are dropped and counted rather than slowing down the request.
+ */
+@Slf4j
+public class DistributedTracing {
+
+    public record Config(String serviceName,
+                         double headSampleRate,
+                         Duration tailLatencyThreshold,
+                         int bufferCapacity,
+                         int exportBatchSize) {
+
+        public static Config defaults() {
+            return new Config("lfp", 0.01, Duration.ofMillis(500), 65536, 512);
+        }
+    }
+
+    public static final String TRACEPARENT = "traceparent";
+
+    private static final int MAX_SPANS_PER_TRACE = 512;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final class Trace {
+        final long idHigh;
+        final long idLow;
+        final boolean sampled;
+        final long startEpochMicros;
+        final long startNanos;
+        final ConcurrentLinkedQueue<Span> finished = new ConcurrentLinkedQueue<>();
+        final AtomicInteger spanCount = new AtomicInteger();
+        volatile boolean error;
+
+        Trace(long idHigh, long idLow, boolean sampled, long startNanos) {
+            this.idHigh = idHigh;
+            this.idLow = idLow;
+            this.sampled = sampled;
+            this.startNanos = startNanos;
+            this.startEpochMicros = System.currentTimeMillis() * 1000;
+        }
+    }
+
+    public static final class Span {
+        private final Trace trace;
+        private final long spanId;
+        private final long parentSpanId;
+        private final Span parent;
+        private final boolean localRoot;
+        private final String serviceName;
+        private final String operationName;
+        private final long startNanos;
+        private volatile long endNanos;
+        private String[] tags;
+        private int tagCount;
+        private boolean error;
+
+        private Span(Trace trace, long parentSpanId, Span parent, boolean localRoot,
+                     String serviceName, String operationName, long startNanos) {
+            this.trace = trace;
+            this.spanId = randomId();
+            this.parentSpanId = parentSpanId;
+            this.parent = parent;
+            this.localRoot = localRoot;
+            this.serviceName = serviceName;
+            this.operationName = operationName;
+            this.startNanos = startNanos;
+        }
+
+        public synchronized void tag(String key, String value) {
+            if (tags == null) {
+                tags = new String[8];
+            } else if (tagCount * 2 == tags.length) {
+                tags = Arrays.copyOf(tags, tags.length * 2);
+            }
+            tags[tagCount * 2] = key;
+            tags[tagCount * 2 + 1] = value;
+            tagCount++;
+        }
+
+        public String getTraceId() { return hex(trace.idHigh) + hex(trace.idLow); }
+        public String getSpanId() { return hex(spanId); }
+        public String getParentSpanId() { return parentSpanId == 0 ? null : hex(parentSpanId); }
+        public String getServiceName() { return serviceName; }
+        public String getOperationName() { return operationName; }
+        public boolean isError() { return error; }
+        public boolean isSampled() { return trace.sampled; }
+        public long getStartEpochMicros() { return trace.startEpochMicros + (startNanos - trace.startNanos) / 1000; }
+        public long getDurationNanos() { return endNanos == 0 ? 0 : endNanos - startNanos; }
+        public long getDuration() { return getDurationNanos() / 1_000_000; }
+
+        public synchronized List<String[]> getTags() {
+            List<String[]> pairs = new ArrayList<>(tagCount);
+            for (int i = 0; i < tagCount; i++) {
+                pairs.add(new String[]{tags[i * 2], tags[i * 2 + 1]});
+            }
+            return pairs;
+        }
+    }
+
+    private final Config config;
+    private final SpanExporter exporter;
+    private final LongSupplier clock;
+    private final long tailThresholdNanos;
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final MpscRingBuffer<Span> buffer;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LongAdder exportedSpans = new LongAdder();
+    private final LongAdder droppedSpans = new LongAdder();
+
+    public DistributedTracing() {
+        this(Config.defaults(), spans -> { }, new SimpleMeterRegistry());
+    }
+
+    public DistributedTracing(Config config, SpanExporter exporter, MeterRegistry meterRegistry) {
+        this(config, exporter, meterRegistry, System::nanoTime);
+    }
+
+    DistributedTracing(Config config, SpanExporter exporter, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.config = config;
+        this.exporter = exporter;
+        this.clock = clock;
+        this.tailThresholdNanos = config.tailLatencyThreshold().toNanos();
+        this.buffer = new MpscRingBuffer<>(config.bufferCapacity());
+        FunctionCounter.builder("lfp.tracing.spans.exported", exportedSpans, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("lfp.tracing.spans.dropped", droppedSpans, LongAdder::sum).register(meterRegistry);
+    }
+
+    /**
+     * Starts the local root span of a request, continuing the remote trace when
+     * {@code traceparent} is a valid W3C header, and makes it the current span.
+     */
+    public Span startTrace(String operationName, String traceparent) {
+        return startTrace(operationName, traceparent, true);
+    }
+
+    /**
+     * Like {@link #startTrace(String, String)}, but the caller's sampled flag only decides the head
+     * sampling when {@code trustSampling} is set. Any client can send {@code traceparent}, and
+     * honouring its flag would let it force the export of every request it makes; an untrusted
+     * trace is still continued, so its ids correlate, and sampled at {@code headSampleRate}.
+     */
+    public Span startTrace(String operationName, String traceparent, boolean trustSampling) {
+        if (traceparent != null && isValidTraceparent(traceparent)) {
+            long high = Long.parseUnsignedLong(traceparent, 3, 19, 16);
+            long low = Long.parseUnsignedLong(traceparent, 19, 35, 16);
+            long remoteParent = Long.parseUnsignedLong(traceparent, 36, 52, 16);
+            boolean sampled = trustSampling
+                    ? (Character.digit(traceparent.charAt(54), 16) & 1) == 1
+                    : headSample();
+            if ((high != 0 || low != 0) && remoteParent != 0) {
+                return startRoot(operationName, config.serviceName(), high, low, remoteParent, sampled);
+            }
+        }
+        return startRoot(operationName, config.serviceName(), randomId(), randomId(), 0, headSample());
+    }
+
+    /** Starts a child of the current span, or returns null when no trace is active on this thread. */
+    public Span startSpan(String operationName) {
+        Span parent = current.get();
+        if (parent == null) {
+            return null;
+        }
+        Span span = new Span(parent.trace, parent.spanId, parent, false, config.serviceName(), operationName, clock.getAsLong());
+        current.set(span);
+        return span;
+    }
+
+    public void error(Span span, Throwable error) {
+        span.error = true;
+        span.trace.error = true;
+        span.tag("error", error.getClass().getSimpleName());
+    }
+
+    /** Ends the span and restores its parent as the current span of this thread. */
+    public void end(Span span) {
+        span.endNanos = clock.getAsLong();
+        if (current.get() == span) {
+            if (span.parent == null) {
+                current.remove();
+            } else {
+                current.set(span.parent);
+            }
+        }
+        Trace trace = span.trace;
+        if (trace.spanCount.incrementAndGet() <= MAX_SPANS_PER_TRACE) {
+            trace.finished.add(span);
+        } else {
+            droppedSpans.increment();
+        }
+        if (span.localRoot) {
+            boolean keep = trace.sampled || trace.error || span.getDurationNanos() >= tailThresholdNanos;
+            if (keep) {
+                Span finished;
+                while ((finished = trace.finished.poll()) != null) {
+                    if (!buffer.offer(finished)) {
+                        droppedSpans.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    public Span currentSpan() {
+        return current.get();
+    }
+
+    /** W3C header for an outgoing call made under {@code span}. */
+    public String traceparent(Span span) {
+        char[] header = new char[55];
+        header[0] = '0';
+        header[1] = '0';
+        header[2] = '-';
+        writeHex(header, 3, span.trace.idHigh);
+        writeHex(header, 19, span.trace.idLow);
+        header[35] = '-';
+        writeHex(header, 36, span.spanId);
+        header[52] = '-';
+        header[53] = '0';
+        header[54] = span.trace.sampled ? '1' : '0';
+        return new String(header);
+    }
+
+    public String currentTraceparent() {
+        Span span = current.get();
+        return span == null ? null : traceparent(span);
+    }
+
+    @Scheduled(fixedDelayString = "${lfp.tracing.export-interval:1s}")
+    public void flush() {
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Span> batch = new ArrayList<>(config.exportBatchSize());
+            while (buffer.drainTo(batch, config.exportBatchSize()) > 0) {
+                try {
+                    exporter.export(batch);
+                    exportedSpans.add(batch.size());
+                } catch (RuntimeException ex) {
+                    droppedSpans.add(batch.size());
+                    log.warn("Span export failed, dropped {} spans", batch.size(), ex);
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        flush();
+    }
+
+    public long getExportedSpans() {
+        return exportedSpans.sum();
+    }
+
+    public long getDroppedSpans() {
+        return droppedSpans.sum();
+    }
+
+    public Span startSpan(String traceId, String serviceName, String operationName) {
+        if (traceId != null && traceId.length() == 32 && isHex(traceId, 0, 32)) {
+            return startRoot(operationName, serviceName, Long.parseUnsignedLong(traceId, 0, 16, 16),
+                    Long.parseUnsignedLong(traceId, 16, 32, 16), 0, headSample());
+        }
+        return startRoot(operationName, serviceName, randomId(), randomId(), 0, headSample());
+    }
+
+    public void endSpan(Span span) {
+        end(span);
+    }
+
+    public Span createChildSpan(Span parentSpan, String operationName) {
+        Span span = new Span(parentSpan.trace, parentSpan.spanId, current.get(), false,
+                parentSpan.serviceName, operationName, clock.getAsLong());
+        current.set(span);
+        return span;
+    }
+
+    public void addTag(Span span, String key, String value) {
+        span.tag(key, value);
+    }
+
+    private Span startRoot(String operationName, String serviceName, long idHigh, long idLow,
+                           long remoteParent, boolean sampled) {
+        long now = clock.getAsLong();
+        Trace trace = new Trace(idHigh, idLow, sampled, now);
+        Span span = new Span(trace, remoteParent, current.get(), true, serviceName, operationName, now);
+        current.set(span);
+        return span;
+    }
+
+    private boolean headSample() {
+        return ThreadLocalRandom.current().nextDouble() < config.headSampleRate();
+    }
+
+    static boolean isValidTraceparent(String header) {
+        return header.length() == 55
+                && header.startsWith("00-")
+                && header.charAt(35) == '-'
+                && header.charAt(52) == '-'
+                && isHex(header, 3, 35)
+                && isHex(header, 36, 52)
+                && isHex(header, 53, 55);
+    }
+
+    private static boolean isHex(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long randomId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return id;
+    }
+
+    private static String hex(long value) {
+        char[] chars = new char[16];
+        writeHex(chars, 0, value);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] target, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            target[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.zanta.lfp.cloud.tracing;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends spans as JSON lines, one object per span with Zipkin-like fields, standing in for a
+ * trace collector. The file is opened per batch so it can be rotated or truncated externally.
+ * Once it reaches {@code maxFileSize} it is moved to {@code <file>.1}, replacing the previous
+ * rotation, so at most twice the limit stays on disk.
+ */
+public class FileSpanExporter implements SpanExporter {
+
+    private final Path file;
+    private final Path rotated;
+    private final long maxFileSize;
+
+    public FileSpanExporter(Path file, long maxFileSize) {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName() + ".1");
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public void export(List<DistributedTracing.Span> spans) {
+        StringBuilder json = new StringBuilder(spans.size() * 256);
+        for (DistributedTracing.Span span : spans) {
+            appendSpan(json, span);
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            // export runs under the tracer's flush lock, nothing else writes the file meanwhile
+            if (Files.exists(file) && Files.size(file) >= maxFileSize) {
+                Files.move(file, rotated, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.append(json);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static void appendSpan(StringBuilder json, DistributedTracing.Span span) {
+        json.append("{\"traceId\":\"").append(span.getTraceId())
+                .append("\",\"id\":\"").append(span.getSpanId()).append('"');
+        if (span.getParentSpanId() != null) {
+            json.append(",\"parentId\":\"").append(span.getParentSpanId()).append('"');
+        }
+        json.append(",\"name\":");
+        appendString(json, span.getOperationName());
+        json.append(",\"service\":");
+        appendString(json, span.getServiceName());
+        json.append(",\"timestamp\":").append(span.getStartEpochMicros())
+                .append(",\"duration\":").append(span.getDurationNanos() / 1000)
+                .append(",\"error\":").append(span.isError())
+                .append(",\"sampled\":").append(span.isSampled())
+                .append(",\"tags\":{");
+        List<String[]> tags = span.getTags();
+        for (int i = 0; i < tags.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendString(json, tags.get(i)[0]);
+            json.append(':');
+            appendString(json, tags.get(i)[1]);
+        }
+        json.append("}}\n");
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
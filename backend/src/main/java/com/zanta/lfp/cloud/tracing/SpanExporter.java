@@ -0,0 +1,9 @@
+package com.zanta.lfp.cloud.tracing;
+
+import java.util.List;
+
+/** Receives batches of finished spans from the tracer's flush; never called concurrently. */
+@FunctionalInterface
+public interface SpanExporter {
+    void export(List<DistributedTracing.Span> spans);
+}
@@ -0,0 +1,101 @@
+package com.zanta.lfp.config;
+
+import com.zanta.lfp.cloud.config.ConfigServer;
+import com.zanta.lfp.cloud.config.ConfigServer.ConfigChange;
+import com.zanta.lfp.post.job.PostExpiryJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Applies the settings that can be tuned without a restart from the {@link ConfigServer}
+ * scope of this backend. A key present there overrides application.properties; removing it
+ * restores the application.properties value. Invalid values are logged and ignored.
+ */
+@Component
+@Slf4j
+public class LiveConfiguration {
+
+    static final String AUTH_PER_MINUTE = "lfp.rate-limit.auth-per-minute";
+    static final String WRITE_PER_MINUTE = "lfp.rate-limit.write-per-minute";
+    static final String READ_PER_MINUTE = "lfp.rate-limit.read-per-minute";
+    static final String EXPIRY_WINDOW = "lfp.posts.expiry-window";
+    static final String PRINCIPAL_CACHE_TTL = "lfp.security.principal-cache.ttl";
+
+    private final RateLimitFilter rateLimitFilter;
+    private final PostExpiryJob postExpiryJob;
+    private final PrincipalCache principalCache;
+    private final Map<String, String> defaults;
+
+    public LiveConfiguration(ConfigServer configServer,
+                             RateLimitFilter rateLimitFilter,
+                             PostExpiryJob postExpiryJob,
+                             PrincipalCache principalCache,
+                             @Value("${lfp.config.service:lfp}") String serviceName,
+                             @Value("${lfp.config.profile:default}") String profile,
+                             @Value("${" + AUTH_PER_MINUTE + ":20}") String authPerMinute,
+                             @Value("${" + WRITE_PER_MINUTE + ":120}") String writePerMinute,
+                             @Value("${" + READ_PER_MINUTE + ":600}") String readPerMinute,
+                             @Value("${" + EXPIRY_WINDOW + ":6h}") String expiryWindow,
+                             @Value("${" + PRINCIPAL_CACHE_TTL + ":5m}") String principalCacheTtl) {
+        this.rateLimitFilter = rateLimitFilter;
+        this.postExpiryJob = postExpiryJob;
+        this.principalCache = principalCache;
+        this.defaults = Map.of(
+                AUTH_PER_MINUTE, authPerMinute,
+                WRITE_PER_MINUTE, writePerMinute,
+                READ_PER_MINUTE, readPerMinute,
+                EXPIRY_WINDOW, expiryWindow,
+                PRINCIPAL_CACHE_TTL, principalCacheTtl);
+
+        configServer.addListener(serviceName, profile, this::apply);
+        Map<String, String> current = configServer.getConfiguration(serviceName, profile);
+        if (!current.isEmpty()) {
+            apply(new ConfigChange(configServer.getVersion(), serviceName, profile,
+                    current.keySet(), Map.of(), current));
+        }
+    }
+
+    void apply(ConfigChange change) {
+        Map<String, String> config = change.current();
+        if (change.changed(AUTH_PER_MINUTE) || change.changed(WRITE_PER_MINUTE) || change.changed(READ_PER_MINUTE)) {
+            applySafely(change, "rate limit budgets", () -> {
+                int auth = Integer.parseInt(value(config, AUTH_PER_MINUTE));
+                int write = Integer.parseInt(value(config, WRITE_PER_MINUTE));
+                int read = Integer.parseInt(value(config, READ_PER_MINUTE));
+                rateLimitFilter.updateBudgets(auth, write, read);
+                log.info("Rate limit budgets per minute are now auth={} write={} read={}", auth, write, read);
+            });
+        }
+        if (change.changed(EXPIRY_WINDOW)) {
+            applySafely(change, EXPIRY_WINDOW, () -> {
+                Duration window = DurationStyle.detectAndParse(value(config, EXPIRY_WINDOW));
+                postExpiryJob.setExpiryWindow(window);
+                log.info("Post expiry window is now {}", window);
+            });
+        }
+        if (change.changed(PRINCIPAL_CACHE_TTL)) {
+            applySafely(change, PRINCIPAL_CACHE_TTL, () -> {
+                Duration ttl = DurationStyle.detectAndParse(value(config, PRINCIPAL_CACHE_TTL));
+                principalCache.setTtl(ttl);
+                log.info("Principal cache TTL is now {}", ttl);
+            });
+        }
+    }
+
+    private static void applySafely(ConfigChange change, String setting, Runnable update) {
+        try {
+            update.run();
+        } catch (IllegalArgumentException ex) {
+            log.warn("Ignoring invalid {} in configuration version {}: {}", setting, change.version(), ex.getMessage());
+        }
+    }
+
+    private String value(Map<String, String> config, String key) {
+        return config.getOrDefault(key, defaults.get(key));
+    }
+}
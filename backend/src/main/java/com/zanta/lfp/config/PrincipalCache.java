@@ -0,0 +1,62 @@
+package com.zanta.lfp.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of authenticated principals keyed by username.
+ * Saves the JWT filter a users lookup on every request; entries expire after the TTL
+ * and are invalidated once a change to the user, such as a new role or a deletion, commits.
+ * Invalidating earlier would let a concurrent request cache the old row again for the whole TTL.
+ */
+@Component
+public class PrincipalCache {
+
+    /** Published by writers of a user; the cached principal is dropped after the transaction commits. */
+    public record UserChanged(String username) {
+    }
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(MeterRegistry meterRegistry,
+                          @Value("${lfp.security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${lfp.security.principal-cache.ttl:5m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "principals");
+    }
+
+    public UserDetails get(String username, UserDetailsService userDetailsService) {
+        return cache.get(username, userDetailsService::loadUserByUsername);
+    }
+
+    /** Applies to existing entries too, measured from when each was loaded. */
+    public void setTtl(Duration ttl) {
+        cache.policy().expireAfterWrite().ifPresent(expiration -> expiration.setExpiresAfter(ttl));
+    }
+
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChanged event) {
+        invalidate(event.username());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,126 @@
+package com.zanta.lfp.config;
+
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter.Budget;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter.Mode;
+import com.zanta.lfp.user.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies per-route request budgets inside the security chain, right after the JWT filter so
+ * authenticated traffic is limited per user and anonymous traffic per client IP.
+ * Auth endpoints use an exact sliding window per IP to slow down credential guessing;
+ * reads and writes use token buckets that tolerate short bursts.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final Counter rejectedAuth;
+    private final Counter rejectedWrite;
+    private final Counter rejectedRead;
+
+    private volatile Budget authBudget;
+    private volatile Budget writeBudget;
+    private volatile Budget readBudget;
+
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           MeterRegistry meterRegistry,
+                           @Value("${lfp.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${lfp.rate-limit.auth-per-minute:20}") int authPerMinute,
+                           @Value("${lfp.rate-limit.write-per-minute:120}") int writePerMinute,
+                           @Value("${lfp.rate-limit.read-per-minute:600}") int readPerMinute) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.rejectedAuth = rejectedCounter(meterRegistry, "auth");
+        this.rejectedWrite = rejectedCounter(meterRegistry, "write");
+        this.rejectedRead = rejectedCounter(meterRegistry, "read");
+        updateBudgets(authPerMinute, writePerMinute, readPerMinute);
+    }
+
+    public void updateBudgets(int authPerMinute, int writePerMinute, int readPerMinute) {
+        // built before any is assigned, so an invalid value leaves all three budgets as they were
+        Budget auth = Budget.perMinute(Mode.SLIDING_WINDOW_LOG, authPerMinute);
+        Budget write = Budget.perMinute(Mode.TOKEN_BUCKET, writePerMinute);
+        Budget read = Budget.perMinute(Mode.TOKEN_BUCKET, readPerMinute);
+        this.authBudget = auth;
+        this.writeBudget = write;
+        this.readBudget = read;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        // the gateway charges its own per-user budget
+        return !enabled || request.getServletPath().startsWith("/gateway/");
+    }
+
+    @Override
+    protected void doFilterInternal
+            (@NonNull HttpServletRequest request,
+             @NonNull HttpServletResponse response,
+             @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getServletPath();
+        RateLimiter.Decision decision;
+        Counter rejected;
+
+        if (path.startsWith("/api/v1/auth/")) {
+            decision = rateLimiter.tryAcquire("auth:" + request.getRemoteAddr(), authBudget);
+            rejected = rejectedAuth;
+        } else if (isWrite(request.getMethod())) {
+            decision = rateLimiter.tryAcquire("write:" + clientKey(request), writeBudget);
+            rejected = rejectedWrite;
+        } else {
+            decision = rateLimiter.tryAcquire("read:" + clientKey(request), readBudget);
+            rejected = rejectedRead;
+        }
+
+        if (!decision.allowed()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(decision.retryAfterSeconds()));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\": \"TOO_MANY_REQUESTS\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof User user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean isWrite(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "DELETE" -> true;
+            default -> false;
+        };
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("lfp.rate-limit.rejected")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+}
@@ -3,8 +3,10 @@ package com.zanta.lfp.config;
 
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -21,6 +23,15 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfiguration {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final RateLimitFilter rateLimitFilter;
+
+    // The limiter only runs inside the security chain, after the JWT filter has resolved the user
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 
     @Bean
     public AccessDeniedHandler accessDeniedHandler() {
@@ -38,8 +49,19 @@ public class SecurityConfiguration {
                         req -> req
                                 .requestMatchers("/api/v1/auth/**")
                                 .permitAll()
+                                // the gateway verifies the bearer token itself
+                                .requestMatchers("/gateway/**")
+                                .permitAll()
+                                // browsers open the lobby stream with EventSource, which cannot send an Authorization
+                                // header; it only carries public lobby deltas, no user data
+                                .requestMatchers(HttpMethod.GET, "/api/v1/posts/stream")
+                                .permitAll()
                                 .requestMatchers("/api/v1/admin/**")
                                 .hasRole("ADMIN")
+                                .requestMatchers("/actuator/health")
+                                .permitAll()
+                                .requestMatchers("/actuator/**")
+                                .hasRole("ADMIN")
                                 .anyRequest()
                                 .authenticated()
                 )
@@ -52,7 +74,8 @@ public class SecurityConfiguration {
                         session -> session
                                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,71 @@
+package com.zanta.lfp.config;
+
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import com.zanta.lfp.cloud.tracing.DistributedTracing.Span;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Opens the root span of every request, before security, continuing the caller's W3C
+ * {@code traceparent} when present and returning ours so clients can correlate. The caller's
+ * sampled flag is only honoured for the trusted callers (the gateway's addresses), other
+ * requests are head-sampled here.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final DistributedTracing tracing;
+    private final boolean enabled;
+    private final Set<String> trustedCallers;
+
+    public TracingFilter(DistributedTracing tracing,
+                         @Value("${lfp.tracing.enabled:true}") boolean enabled,
+                         @Value("${lfp.tracing.trusted-callers:}") Set<String> trustedCallers) {
+        this.tracing = tracing;
+        this.enabled = enabled;
+        this.trustedCallers = trustedCallers;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal
+            (@NonNull HttpServletRequest request,
+             @NonNull HttpServletResponse response,
+             @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        Span span = tracing.startTrace(request.getMethod() + " " + request.getServletPath(),
+                request.getHeader(DistributedTracing.TRACEPARENT),
+                trustedCallers.contains(request.getRemoteAddr()));
+        response.setHeader(DistributedTracing.TRACEPARENT, tracing.traceparent(span));
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException ex) {
+            tracing.error(span, ex);
+            throw ex;
+        } finally {
+            int status = response.getStatus();
+            span.tag("http.status_code", Integer.toString(status));
+            if (status >= 500 && !span.isError()) {
+                tracing.error(span, new IllegalStateException("HTTP " + status));
+            }
+            tracing.end(span);
+        }
+    }
+}
@@ -17,12 +17,12 @@ public class GameController {
     private final GameService gameService;
 
     @GetMapping("/all")
-    public ResponseEntity<?> getGames() {
+    public ResponseEntity<byte[]> getGames() {
         return gameService.getAllGames();
     }
 
     @GetMapping("/{name}")
-    public ResponseEntity<?> getGame(@PathVariable  String name) {
+    public ResponseEntity<byte[]> getGame(@PathVariable  String name) {
         return gameService.getGame(name);
     }
 
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
@@ -14,6 +16,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Table(name = "games")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "games")
 public class Game {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,6 +41,7 @@ public class Game {
     @NotNull(message = "Modes cannot be null")
     @Size(min = 1, message = "At least one game mode is required")
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "game-modes")
     @CollectionTable(name = "game_modes", joinColumns = @JoinColumn(name = "game_id"))
     @Column(name = "mode", nullable = false)
     @JsonProperty(access = JsonProperty.Access.READ_WRITE)
@@ -0,0 +1,114 @@
+package com.zanta.lfp.game.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Read-only snapshot of the game catalog, held as the exact JSON bytes the game endpoints return
+ * together with a strong ETag per document. It is loaded on first use and dropped when a
+ * {@link Changed} event's transaction commits, so reads never touch the database between changes.
+ * Names are looked up case-insensitively, as they were against MySQL's default collation.
+ */
+@Component
+@Slf4j
+public class GameCatalog {
+
+    /** Published by writers of the games table; the catalog reloads after the transaction commits. */
+    public record Changed() {
+    }
+
+    public record Document(byte[] json, String etag) {
+    }
+
+    private record Snapshot(Document all, Map<String, Document> byName) {
+    }
+
+    private final GameRepository gameRepository;
+    private final ObjectMapper objectMapper;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    // bumped on every change, a load that started before the bump is not installed
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public GameCatalog(GameRepository gameRepository, ObjectMapper objectMapper) {
+        this.gameRepository = gameRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /** The {@code {"games": [...]}} document. */
+    public Document all() {
+        return current().all();
+    }
+
+    /** The {@code {"game": {...}}} document, or null when no game has that name. */
+    public Document byName(String name) {
+        return current().byName().get(key(name));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChanged(Changed event) {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        // one loader at a time; the others wait and read what it installed
+        loadLock.lock();
+        try {
+            current = snapshot;
+            if (current != null) {
+                return current;
+            }
+            long loadedGeneration = generation.get();
+            current = load();
+            if (generation.get() == loadedGeneration) {
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private Snapshot load() {
+        List<Game> games = gameRepository.findAll(Sort.by("id"));
+        Map<String, Document> byName = new HashMap<>(games.size() * 2);
+        for (Game game : games) {
+            byName.put(key(game.getName()), document(Map.of("game", game)));
+        }
+        log.debug("Game catalog loaded with {} games", games.size());
+        return new Snapshot(document(Map.of("games", games)), Map.copyOf(byName));
+    }
+
+    private Document document(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Document(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -4,16 +4,32 @@ package com.zanta.lfp.game.service;
 import com.zanta.lfp.game.model.Game;
 import com.zanta.lfp.game.repository.GameRepository;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 public class GameService {
     private final GameRepository gameRepository;
+    private final GameCatalog gameCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheControl catalogCacheControl;
+
+    public GameService(GameRepository gameRepository,
+                       GameCatalog gameCatalog,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${lfp.games.catalog.max-age:60s}") Duration catalogMaxAge) {
+        this.gameRepository = gameRepository;
+        this.gameCatalog = gameCatalog;
+        this.eventPublisher = eventPublisher;
+        this.catalogCacheControl = CacheControl.maxAge(catalogMaxAge).cachePrivate();
+    }
 
     public ResponseEntity<?> addGame(Game game) {
         if (gameRepository.existsByName(game.getName())) {
@@ -22,21 +38,22 @@ public class GameService {
                     .body(Map.of("message", "Game with this name already exists"));
         }
         var savedGame = gameRepository.save(game);
+        eventPublisher.publishEvent(new GameCatalog.Changed());
         return ResponseEntity
                 .ok(Map.of("message", "Game added successfully", "game", savedGame));
     }
 
-    public ResponseEntity<?> getAllGames() {
-        var games = gameRepository.findAll();
-        return ResponseEntity.ok(Map.of("games", games));
+    // a matching If-None-Match is answered with 304 by Spring MVC, without a body
+    public ResponseEntity<byte[]> getAllGames() {
+        return cached(gameCatalog.all());
     }
 
-    public ResponseEntity<?> getGame(String name) {
-        if (!gameRepository.existsByName(name)) {
+    public ResponseEntity<byte[]> getGame(String name) {
+        GameCatalog.Document game = gameCatalog.byName(name);
+        if (game == null) {
             return ResponseEntity.notFound().build();
         }
-        var game = gameRepository.findByName(name);
-        return ResponseEntity.ok(Map.of("game", game));
+        return cached(game);
     }
 
     @Transactional
@@ -45,8 +62,15 @@ public class GameService {
             return ResponseEntity.notFound().build();
         }
         gameRepository.deleteByName(name);
+        eventPublisher.publishEvent(new GameCatalog.Changed());
         return ResponseEntity.ok(Map.of("message", "Game deleted successfully"));
     }
 
-
+    private ResponseEntity<byte[]> cached(GameCatalog.Document document) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(document.etag())
+                .cacheControl(catalogCacheControl)
+                .body(document.json());
+    }
 }
@@ -0,0 +1,94 @@
+package com.zanta.lfp.gateway.controller;
+
+import com.zanta.lfp.cloud.gateway.ApiGateway;
+import com.zanta.lfp.cloud.gateway.ApiGateway.GatewayException;
+import com.zanta.lfp.cloud.gateway.ApiGateway.GatewayRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single ingress for the backend replicas: {@code /gateway/{service}/path?query} is proxied to
+ * {@code /path?query} on an instance of the service. Authentication and rate limiting happen in
+ * {@link ApiGateway}, so this path skips the JWT and rate limit filters.
+ */
+@RestController
+@RequestMapping("gateway")
+@ConditionalOnProperty(name = "lfp.gateway.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class GatewayController {
+
+    private final ApiGateway apiGateway;
+
+    // The servlet thread is released while the upstream answers; the body is then copied in chunks
+    @RequestMapping("/{service}/**")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> proxy(@PathVariable String service,
+                                                                          HttpServletRequest request) {
+        GatewayRequest gatewayRequest = new GatewayRequest(
+                request.getMethod(),
+                pathAndQuery(request, service),
+                headers(request),
+                request.getRemoteAddr(),
+                request.getContentLengthLong(),
+                request::getInputStream);
+        return apiGateway.routeRequest(service, gatewayRequest).thenApply(GatewayController::toResponse);
+    }
+
+    @ExceptionHandler(GatewayException.class)
+    public ResponseEntity<?> handleGatewayException(GatewayException ex) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(ex.getStatus());
+        if (ex.getRetryAfterSeconds() > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()));
+        }
+        return response.body(Map.of("error", ex.getMessage()));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> toResponse(HttpResponse<InputStream> upstream) {
+        HttpHeaders headers = new HttpHeaders();
+        upstream.headers().map().forEach((name, values) -> {
+            if (!ApiGateway.isHopByHop(name)) {
+                headers.addAll(name, values);
+            }
+        });
+        StreamingResponseBody body = out -> {
+            try (InputStream in = upstream.body()) {
+                in.transferTo(out);
+            }
+        };
+        return ResponseEntity.status(upstream.statusCode()).headers(headers).body(body);
+    }
+
+    // raw (still encoded) path after /gateway/{service}, so it reaches the upstream unchanged
+    private static String pathAndQuery(HttpServletRequest request, String service) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        String path = uri.substring(Math.min(uri.length(), "/gateway/".length() + service.length()));
+        if (path.isEmpty()) {
+            path = "/";
+        }
+        String query = request.getQueryString();
+        return query == null ? path : path + "?" + query;
+    }
+
+    private static Map<String, List<String>> headers(HttpServletRequest request) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        return headers;
+    }
+}
@@ -1,26 +1,78 @@
 package com.zanta.lfp.post.controller;
 
 
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreakerRegistry;
 import com.zanta.lfp.post.dto.CreatePostDto;
+import com.zanta.lfp.post.dto.LobbyQuery;
+import com.zanta.lfp.post.dto.PostFeedRequest;
+import com.zanta.lfp.post.event.LobbyStream;
 import com.zanta.lfp.post.service.PostService;
 import com.zanta.lfp.user.model.User;
 import jakarta.validation.Valid;
-import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
 
 @RestController
 @RequestMapping("api/v1/posts")
-@RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class PostController {
     private final PostService postService;
+    private final CircuitBreaker feedCircuitBreaker;
+    private final LobbyStream lobbyStream;
+
+    public PostController(PostService postService, CircuitBreakerRegistry circuitBreakers, LobbyStream lobbyStream) {
+        this.postService = postService;
+        this.lobbyStream = lobbyStream;
+        // only database failures count against the feed circuit, bad requests still get their 400
+        this.feedCircuitBreaker = circuitBreakers.breaker("post-feed", DataAccessException.class::isInstance);
+    }
 
+    // Reads the same tables as the feed, unpaginated, so it shares the feed circuit
     @GetMapping("/all")
     public ResponseEntity<?> getAllPosts(@AuthenticationPrincipal User user) {
         Long userId = user != null ? user.getId() : null;
-        return postService.getAllPosts(userId);
+        return feedCircuitBreaker.execute(() -> postService.getAllPosts(userId), this::feedUnavailable);
+    }
+
+    // Cursor-paginated feed, filterable by game, rank, voice chat and open slots.
+    // Fails fast with 503 while the database is failing or too slow instead of queueing requests.
+    @GetMapping("/feed")
+    public ResponseEntity<?> getFeed(PostFeedRequest request, @AuthenticationPrincipal User user) {
+        Long userId = user != null ? user.getId() : null;
+        return feedCircuitBreaker.execute(() -> postService.getFeed(request, userId), this::feedUnavailable);
+    }
+
+    private ResponseEntity<?> feedUnavailable(Throwable ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Feed is temporarily unavailable, please retry shortly"));
+    }
+
+    // Open lobbies for a game / rank / voice chat with at least minFreeSlots free slots
+    @GetMapping("/lobbies")
+    public ResponseEntity<?> findLobbies(LobbyQuery query, @AuthenticationPrincipal User user) {
+        Long userId = user != null ? user.getId() : null;
+        return postService.findLobbies(query, userId);
+    }
+
+    // Server-Sent Events with every lobby change (optionally for one game) instead of polling the feed.
+    // Public, so a browser EventSource can open it without an Authorization header; the events are lobby
+    // deltas without user data, and the stream's client cap bounds anonymous subscribers.
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) Integer gameId) {
+        SseEmitter emitter = lobbyStream.subscribe(gameId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
     }
 
     // Get post by ID
@@ -60,6 +112,9 @@ public class PostController {
 }
 
 // localhost:8080/api/v1/posts/all  [GET]
+// localhost:8080/api/v1/posts/feed?gameId=&rank=&voiceChat=&openSlots=&cursor=&size=  [GET]
+// localhost:8080/api/v1/posts/lobbies?gameId=&rank=&voiceChat=&minFreeSlots=&limit=  [GET]
+// localhost:8080/api/v1/posts/stream?gameId=  [GET, text/event-stream, no token needed]
 // localhost:8080/api/v1/posts/{id}  [GET]
 // localhost:8080/api/v1/posts  [POST]
 // localhost:8080/api/v1/posts/{id}  [DELETE]
@@ -0,0 +1,22 @@
+package com.zanta.lfp.post.dto;
+
+// open lobby search parameters, every filter is optional
+public record LobbyQuery(
+        Integer gameId,
+        String rank,
+        Boolean voiceChat,
+        Integer minFreeSlots,
+        Integer limit
+) {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    public int freeSlots() {
+        return minFreeSlots == null ? 0 : Math.max(0, minFreeSlots);
+    }
+
+    public int pageSize() {
+        if (limit == null || limit < 1) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -1,6 +1,7 @@
 package com.zanta.lfp.post.dto;
 
 import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.post.model.Post;
 import com.zanta.lfp.user.Dto.UserDto;
 import java.time.LocalDateTime;
 
@@ -21,7 +22,24 @@ public record PostDto (
         Boolean voiceChat,
         Boolean hasJoined  // null if user not logged in, true if joined, false if not joined
 )
-{}
+{
+    public static PostDto from(Post post, boolean hasJoined) {
+        return new PostDto(
+                post.getId(),
+                post.getTitle(),
+                post.getPartyCode(),
+                post.getTeamSize(),
+                post.getCurrentPlayers(),
+                UserDto.from(post.getOwner()),
+                post.getGame(),
+                post.getCreatedAt(),
+                post.getActive(),
+                post.getPlayerRank(),
+                post.getVoiceChat(),
+                hasJoined
+        );
+    }
+}
 
 
 
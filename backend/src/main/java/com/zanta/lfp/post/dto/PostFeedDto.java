@@ -0,0 +1,9 @@
+package com.zanta.lfp.post.dto;
+
+import java.util.List;
+
+// api response for one feed page, nextCursor is null on the last page
+public record PostFeedDto(
+        List<PostDto> posts,
+        String nextCursor
+) {}
@@ -0,0 +1,23 @@
+package com.zanta.lfp.post.dto;
+
+// feed query parameters, every filter is optional
+public record PostFeedRequest(
+        Integer gameId,
+        String rank,
+        Boolean voiceChat,
+        Boolean openSlots,
+        String cursor,
+        Integer size
+) {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public int pageSize() {
+        if (size == null || size < 1) return DEFAULT_PAGE_SIZE;
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public boolean onlyOpenSlots() {
+        return Boolean.TRUE.equals(openSlots);
+    }
+}
@@ -0,0 +1,277 @@
+package com.zanta.lfp.post.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zanta.lfp.cloud.messaging.MessageQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes committed post events to Server-Sent Events clients, optionally filtered by game.
+ * <p>
+ * An idle client is only an open async request and an entry in {@link #clients}; no thread is
+ * held. Each event is serialized once and queued on every matching client, where it replaces any
+ * unsent event for the same post. A client with pending events gets a virtual thread that writes
+ * them and exits once the queue is empty. A client with more posts pending than the limit whose
+ * writer has not finished a write within the stall timeout is not keeping up and is disconnected;
+ * the browser's EventSource reconnects and reloads the feed. Bursts alone, such as an expiry run,
+ * never drop a client that is still writing.
+ */
+@Component
+@Slf4j
+public class LobbyStream {
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int maxClients;
+    private final int maxPendingPerClient;
+    private final long stallTimeoutNanos;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter droppedClients;
+    private final MessageQueue.Subscription subscription;
+
+    public LobbyStream(MessageQueue messageQueue,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${lfp.posts.stream.timeout:30m}") Duration timeout,
+                       @Value("${lfp.posts.stream.max-clients:50000}") int maxClients,
+                       @Value("${lfp.posts.stream.max-pending:256}") int maxPendingPerClient,
+                       @Value("${lfp.posts.stream.stall-timeout:5s}") Duration stallTimeout) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxClients = maxClients;
+        this.maxPendingPerClient = maxPendingPerClient;
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+        Gauge.builder("lfp.posts.stream.clients", clients, Set::size)
+                .description("Open lobby stream connections")
+                .register(meterRegistry);
+        this.droppedClients = Counter.builder("lfp.posts.stream.dropped")
+                .description("Lobby stream clients disconnected for falling behind")
+                .register(meterRegistry);
+        this.subscription = messageQueue.subscribeBatch(PostEventRelay.TOPIC, this::fanOut);
+    }
+
+    /** Opens a stream of events for {@code gameId}, or every game when null; null when the server is full. */
+    public SseEmitter subscribe(Integer gameId) {
+        return subscribe(gameId, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(Integer gameId, SseEmitter emitter) {
+        if (clients.size() >= maxClients) {
+            return null;
+        }
+        Client client = new Client(emitter, gameId);
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(ex -> client.close());
+        clients.add(client);
+        try {
+            // buffered until the response starts, so the client sees the headers right away
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException ex) {
+            client.close();
+        }
+        return emitter;
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    // Keeps proxies from closing idle streams and finds clients that went away without a FIN
+    @Scheduled(fixedDelayString = "${lfp.posts.stream.heartbeat-interval:15s}")
+    public void heartbeat() {
+        for (Client client : clients) {
+            client.requestHeartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscription.cancel();
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        writers.shutdown();
+    }
+
+    private void fanOut(List<MessageQueue.Message> batch) {
+        for (MessageQueue.Message message : batch) {
+            if (!(message.getPayload() instanceof PostEvent event)) {
+                continue;
+            }
+            Delta delta = new Delta(event, json(event));
+            for (Client client : clients) {
+                if (client.accepts(event) && !client.offer(delta)) {
+                    droppedClients.increment();
+                    log.debug("Dropping stalled lobby stream client for game {}", client.gameId);
+                    client.close();
+                    // complete() waits for a write in progress, which is what made the client slow
+                    writers.execute(client.emitter::complete);
+                }
+            }
+        }
+    }
+
+    private String json(PostEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Bursts on one post collapse to its latest state; a lobby created and closed before being sent is never sent
+    private Delta coalesce(Delta pending, Delta next) {
+        if (pending.event().type() != PostEvent.Type.CREATED) {
+            return next;
+        }
+        PostEvent.Type type = next.event().type();
+        if (type == PostEvent.Type.DELETED || type == PostEvent.Type.EXPIRED) {
+            return null;
+        }
+        PostEvent latest = next.event();
+        PostEvent created = new PostEvent(PostEvent.Type.CREATED, latest.postId(), latest.gameId(), latest.rank(),
+                latest.voiceChat(), latest.teamSize(), latest.currentPlayers(), latest.createdAt());
+        return new Delta(created, json(created));
+    }
+
+    private record Delta(PostEvent event, String json) {
+    }
+
+    private final class Client {
+
+        private final SseEmitter emitter;
+        private final Integer gameId;
+        private final ReentrantLock lock = new ReentrantLock();
+        // latest unsent delta per post, in the order the posts first changed
+        private final LinkedHashMap<Long, Delta> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean writing;
+        // when the current writer started or last finished a write
+        private volatile long lastProgressNanos;
+        private volatile boolean closed;
+
+        Client(SseEmitter emitter, Integer gameId) {
+            this.emitter = emitter;
+            this.gameId = gameId;
+        }
+
+        // expiry events carry no game and go to every client
+        boolean accepts(PostEvent event) {
+            return gameId == null || event.gameId() == null || gameId.equals(event.gameId());
+        }
+
+        /** Returns false when the client has too many posts pending and its writer is stalled. */
+        boolean offer(Delta delta) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return true;
+                }
+                Delta previous = pending.get(delta.event().postId());
+                Delta merged = previous == null ? delta : coalesce(previous, delta);
+                if (merged == null) {
+                    pending.remove(delta.event().postId());
+                } else {
+                    pending.put(delta.event().postId(), merged);
+                }
+                if (pending.size() > maxPendingPerClient && writing
+                        && System.nanoTime() - lastProgressNanos > stallTimeoutNanos) {
+                    return false;
+                }
+                startWriting();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void requestHeartbeat() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    heartbeatDue = true;
+                    startWriting();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void close() {
+            closed = true;
+            clients.remove(this);
+        }
+
+        // caller holds the lock
+        private void startWriting() {
+            if (!writing) {
+                writing = true;
+                lastProgressNanos = System.nanoTime();
+                writers.execute(this::write);
+            }
+        }
+
+        private void write() {
+            while (true) {
+                List<Delta> deltas;
+                boolean heartbeat;
+                lock.lock();
+                try {
+                    if (closed || (pending.isEmpty() && !heartbeatDue)) {
+                        writing = false;
+                        return;
+                    }
+                    deltas = new ArrayList<>(pending.values());
+                    pending.clear();
+                    heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    for (Delta delta : deltas) {
+                        emitter.send(SseEmitter.event()
+                                .name(delta.event().type().name())
+                                .data(delta.json()));
+                        lastProgressNanos = System.nanoTime();
+                    }
+                    if (heartbeat && deltas.isEmpty()) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    // the connection is gone or the emitter already completed
+                    close();
+                    lock.lock();
+                    try {
+                        writing = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.zanta.lfp.post.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.zanta.lfp.post.model.Post;
+
+import java.time.LocalDateTime;
+
+// lobby lifecycle change, published by PostService and delivered to listeners after commit;
+// also the payload of the lobby stream, where null fields are left out
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PostEvent(
+        Type type,
+        Long postId,
+        Integer gameId,
+        String rank,
+        Boolean voiceChat,
+        int teamSize,
+        int currentPlayers,
+        LocalDateTime createdAt
+) {
+    public enum Type {
+        CREATED,
+        JOINED,
+        LEFT,
+        DELETED,
+        EXPIRED
+    }
+
+    public static PostEvent of(Type type, Post post) {
+        return new PostEvent(
+                type,
+                post.getId(),
+                post.getGame().getId(),
+                post.getPlayerRank(),
+                post.getVoiceChat(),
+                post.getTeamSize(),
+                post.getCurrentPlayers(),
+                post.getCreatedAt()
+        );
+    }
+
+    public static PostEvent expired(Long postId) {
+        return new PostEvent(Type.EXPIRED, postId, null, null, null, 0, 0, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.zanta.lfp.post.event;
+
+import com.zanta.lfp.cloud.messaging.MessageQueue;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards committed post events to the message queue. Publishing only enqueues onto the
+ * subscribers' rings, so the HTTP response never waits for a subscriber.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostEventRelay {
+
+    public static final String TOPIC = "posts";
+
+    private final MessageQueue messageQueue;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void relay(PostEvent event) {
+        messageQueue.publish(TOPIC, event);
+    }
+}
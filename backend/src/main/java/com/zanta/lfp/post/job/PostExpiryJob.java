@@ -0,0 +1,97 @@
+package com.zanta.lfp.post.job;
+
+import com.zanta.lfp.post.event.PostEvent;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.post.service.LobbyIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deactivates posts older than the expiry window in the background.
+ * Each chunk is a single bulk UPDATE in its own transaction, so no chunk holds row locks for long
+ * and the feed endpoints never have to write.
+ */
+@Component
+@Slf4j
+public class PostExpiryJob {
+
+    private final PostRepository postRepository;
+    private final LobbyIndex lobbyIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile Duration expiryWindow;
+    private final int batchSize;
+    private final Counter expiredPosts;
+    private final Timer expiryDuration;
+
+    public PostExpiryJob(PostRepository postRepository,
+                         LobbyIndex lobbyIndex,
+                         ApplicationEventPublisher eventPublisher,
+                         MeterRegistry meterRegistry,
+                         @Value("${lfp.posts.expiry-window:6h}") Duration expiryWindow,
+                         @Value("${lfp.posts.expiry-batch-size:500}") int batchSize) {
+        this.postRepository = postRepository;
+        this.lobbyIndex = lobbyIndex;
+        this.eventPublisher = eventPublisher;
+        this.expiryWindow = requirePositive(expiryWindow);
+        if (batchSize <= 0) {
+            // 0 would repeat an empty update forever, a negative LIMIT is not valid SQL
+            throw new IllegalArgumentException("Post expiry batch size must be positive, was " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.expiredPosts = Counter.builder("lfp.posts.expired")
+                .description("Posts deactivated by the expiry job")
+                .register(meterRegistry);
+        this.expiryDuration = Timer.builder("lfp.posts.expiry.duration")
+                .description("Time spent by one run of the expiry job")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes effect on the next run. A zero or negative window would put the cutoff at or after now
+     * and close every open lobby, so it is rejected and the current window stays.
+     */
+    public void setExpiryWindow(Duration expiryWindow) {
+        this.expiryWindow = requirePositive(expiryWindow);
+    }
+
+    private static Duration requirePositive(Duration expiryWindow) {
+        if (expiryWindow == null || expiryWindow.isZero() || expiryWindow.isNegative()) {
+            throw new IllegalArgumentException("Post expiry window must be positive, was " + expiryWindow);
+        }
+        return expiryWindow;
+    }
+
+    @Scheduled(fixedDelayString = "${lfp.posts.expiry-interval:1m}")
+    public void expireStalePosts() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now().minus(expiryWindow);
+
+        int total = 0;
+        int updated;
+        do {
+            updated = postRepository.deactivateCreatedBefore(cutoff, batchSize);
+            total += updated;
+        } while (updated == batchSize);
+        // the index knows which open lobbies the bulk update closed, so stream clients can drop them
+        for (long postId : lobbyIndex.evictCreatedBefore(cutoff)) {
+            eventPublisher.publishEvent(PostEvent.expired(postId));
+        }
+
+        long elapsed = System.nanoTime() - start;
+        expiryDuration.record(elapsed, TimeUnit.NANOSECONDS);
+        expiredPosts.increment(total);
+        if (total > 0) {
+            log.info("Expired {} posts created before {} in {} ms", total, cutoff, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+    }
+}
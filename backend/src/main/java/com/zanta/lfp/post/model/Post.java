@@ -7,6 +7,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -25,7 +27,12 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "post")
+@Table(name = "post", indexes = {
+        // keyset pagination of the feed on (created_at, id), optionally narrowed by game or rank
+        @Index(name = "idx_post_active_created", columnList = "active, created_at, id"),
+        @Index(name = "idx_post_game_active_created", columnList = "game_id, active, created_at, id"),
+        @Index(name = "idx_post_rank_active_created", columnList = "player_rank, active, created_at, id")
+})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -53,11 +60,15 @@ public class Post {
     private Integer currentPlayers = 0;
 
 
+    // owner and game are resolved by id after the post row, so the second-level cache answers them;
+    // the feed queries still join fetch both
     @ManyToOne(optional = false)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
     @ManyToOne(optional = false)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "game_id", nullable = false)
     private Game game;
 
@@ -13,15 +13,20 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "post_participants", uniqueConstraints = {
-    @UniqueConstraint(columnNames = {"post_id", "user_id"})
+    @UniqueConstraint(name = PostParticipant.POST_USER_CONSTRAINT, columnNames = {"post_id", "user_id"})
 })
 public class PostParticipant {
+
+    // joinPost tells a repeated join from a vanished post by these names, see PostService
+    public static final String POST_USER_CONSTRAINT = "uk_post_participants_post_user";
+    public static final String POST_FOREIGN_KEY = "fk_post_participants_post";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(optional = false)
-    @JoinColumn(name = "post_id", nullable = false)
+    @JoinColumn(name = "post_id", nullable = false, foreignKey = @ForeignKey(name = POST_FOREIGN_KEY))
     private Post post;
 
     @ManyToOne(optional = false)
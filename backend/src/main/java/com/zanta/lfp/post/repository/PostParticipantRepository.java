@@ -2,9 +2,14 @@ package com.zanta.lfp.post.repository;
 
 import com.zanta.lfp.post.model.PostParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface PostParticipantRepository extends JpaRepository<PostParticipant, Long> {
     Optional<PostParticipant> findByPostIdAndUserId(Long postId, Long userId);
@@ -14,5 +19,13 @@ public interface PostParticipantRepository extends JpaRepository<PostParticipant
     void deleteByPostId(Long id);
 
     List<PostParticipant> findByUserId(Long id);
-}
 
+    // Which of the given posts the user has joined, answered with a single post_id IN (...) query
+    @Query("select pp.post.id from PostParticipant pp where pp.user.id = :userId and pp.post.id in :postIds")
+    Set<Long> findJoinedPostIds(@Param("userId") Long userId, @Param("postIds") Collection<Long> postIds);
+
+    // Single DELETE statement, returns the number of removed rows (0 when the user never joined)
+    @Modifying
+    @Query("delete from PostParticipant pp where pp.post.id = :postId and pp.user.id = :userId")
+    int removeParticipant(@Param("postId") Long postId, @Param("userId") Long userId);
+}
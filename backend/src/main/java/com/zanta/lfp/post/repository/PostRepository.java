@@ -1,14 +1,104 @@
 package com.zanta.lfp.post.repository;
 
 import com.zanta.lfp.post.model.Post;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findByActiveTrue();
-    List<Post> findByActiveTrueAndCreatedAtBefore(LocalDateTime dateTime);
 
     List<Post> findByOwnerId(Long id);
+
+    // Feed read path: owner, game and game modes come back in the same statement
+    @Query("select p from Post p join fetch p.owner join fetch p.game g left join fetch g.modes where p.active = true")
+    List<Post> findActiveFeed();
+
+    // Keyset page over (createdAt, id), newest first; null filters are ignored
+    @Query("""
+            select p.id from Post p
+            where p.active = true
+              and (:gameId is null or p.game.id = :gameId)
+              and (:rank is null or p.playerRank = :rank)
+              and (:voiceChat is null or p.voiceChat = :voiceChat)
+              and (:openSlots = false or p.currentPlayers < p.teamSize)
+              and (:cursorCreatedAt is null
+                   or p.createdAt < :cursorCreatedAt
+                   or (p.createdAt = :cursorCreatedAt and p.id < :cursorId))
+            order by p.createdAt desc, p.id desc
+            """)
+    List<Long> findFeedPageIds(@Param("gameId") Integer gameId,
+                               @Param("rank") String rank,
+                               @Param("voiceChat") Boolean voiceChat,
+                               @Param("openSlots") boolean openSlots,
+                               @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                               @Param("cursorId") Long cursorId,
+                               Pageable pageable);
+
+    @Query("select p from Post p join fetch p.owner join fetch p.game g left join fetch g.modes where p.id in :ids")
+    List<Post> findFeedByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Deactivates at most batchSize expired posts in a single statement, returns the affected row count.
+    // Declaring the table keeps Hibernate from clearing every second-level cache region on each run.
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "post"))
+    @Query(value = "update post set active = false where active = true and created_at < :cutoff limit :batchSize",
+            nativeQuery = true)
+    int deactivateCreatedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // Claims one slot atomically; 0 rows means the post is full or no longer active
+    @Modifying(clearAutomatically = true)
+    @Query("update Post p set p.currentPlayers = p.currentPlayers + 1 " +
+            "where p.id = :id and p.active = true and p.currentPlayers < p.teamSize")
+    int claimSlot(@Param("id") Long id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Post p set p.currentPlayers = p.currentPlayers - 1 where p.id = :id and p.currentPlayers > 0")
+    int releaseSlot(@Param("id") Long id);
+
+    // Same ordering as the feed, used by the lobby search while the in-memory index is not ready
+    @Query("""
+            select p.id from Post p
+            where p.active = true
+              and (:gameId is null or p.game.id = :gameId)
+              and (:rank is null or p.playerRank = :rank)
+              and (:voiceChat is null or p.voiceChat = :voiceChat)
+              and p.teamSize - p.currentPlayers >= :minFreeSlots
+            order by p.createdAt desc, p.id desc
+            """)
+    List<Long> findLobbyIds(@Param("gameId") Integer gameId,
+                            @Param("rank") String rank,
+                            @Param("voiceChat") Boolean voiceChat,
+                            @Param("minFreeSlots") int minFreeSlots,
+                            Pageable pageable);
+
+    // Just the columns the lobby index needs, without loading owners and games
+    @Query("""
+            select p.id as postId, p.game.id as gameId, p.playerRank as rank, p.voiceChat as voiceChat,
+                   p.teamSize as teamSize, p.currentPlayers as currentPlayers, p.createdAt as createdAt
+            from Post p
+            where p.active = true
+            """)
+    List<LobbyRow> findActiveLobbies();
+
+    interface LobbyRow {
+        Long getPostId();
+        Integer getGameId();
+        String getRank();
+        Boolean getVoiceChat();
+        Integer getTeamSize();
+        Integer getCurrentPlayers();
+        LocalDateTime getCreatedAt();
+    }
 }
@@ -0,0 +1,474 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.post.event.PostEvent;
+import com.zanta.lfp.post.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of open lobbies for matchmaking queries.
+ * <p>
+ * Every live lobby owns one slot in a set of parallel primitive arrays; bitsets per game, rank,
+ * voice chat and free-slot bucket mark which slots match, so a query is a handful of bitset ANDs
+ * followed by a top-N pick on creation time. Around 50 bytes per lobby, 100k lobbies fit in ~5 MB.
+ * <p>
+ * The index is loaded from the database on startup and rebuilt periodically; in between it is kept
+ * up to date from {@link PostEvent}s after their transaction commits. Joins and leaves are applied
+ * as deltas, so events arriving out of order still converge. Events delivered while a rebuild reads
+ * the database are recorded and replayed onto the reloaded index, so a lobby created or removed
+ * meanwhile is neither lost nor brought back. A join or leave that committed just before the read
+ * but was delivered after it is counted twice, leaving that lobby one slot off until the next rebuild.
+ */
+@Component
+@Slf4j
+public class LobbyIndex {
+
+    // buckets 0..7 are exact free-slot counts, the last one holds every lobby with 8 or more
+    private static final int FREE_SLOT_BUCKETS = 9;
+    private static final int SLOT_BITS = 24;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+    private static final int NO_RANK = 0;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final PostRepository postRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile boolean ready;
+    // events delivered while a rebuild reads the database, null when no rebuild is running
+    private List<PostEvent> eventsDuringRebuild;
+
+    private long[] postIds;
+    private int[] gameIds;
+    private int[] rankCodes;
+    private byte[] freeSlots;
+    private long[] createdAtSeconds;
+    private int highWater;
+    private int[] releasedSlots;
+    private int releasedCount;
+
+    private BitSet live;
+    private BitSet voiceChat;
+    private BitSet[] byFreeSlots;
+    private Map<Integer, BitSet> byGame;
+    private Map<Integer, BitSet> byRank;
+    private Map<String, Integer> rankCodeByName;
+    private LongIntMap slotByPostId;
+
+    public LobbyIndex(PostRepository postRepository, MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        reset();
+        Gauge.builder("lfp.lobby.index.size", this, LobbyIndex::size)
+                .description("Open lobbies held by the in-memory lobby index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByPostId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads every active lobby from the database; runs on startup and then on a fixed delay
+     * to correct any drift left by events that raced a previous rebuild.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${lfp.lobby-index.rebuild-interval:10m}",
+            fixedDelayString = "${lfp.lobby-index.rebuild-interval:10m}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            lock.writeLock().lock();
+            try {
+                eventsDuringRebuild = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            List<PostRepository.LobbyRow> rows;
+            try {
+                rows = postRepository.findActiveLobbies();
+            } catch (RuntimeException ex) {
+                stopRecording();
+                throw ex;
+            }
+
+            int replayed;
+            lock.writeLock().lock();
+            try {
+                reset();
+                for (PostRepository.LobbyRow row : rows) {
+                    add(row.getPostId(), row.getGameId(), row.getRank(), Boolean.TRUE.equals(row.getVoiceChat()),
+                            row.getTeamSize() - row.getCurrentPlayers(), row.getCreatedAt());
+                }
+                replayed = eventsDuringRebuild.size();
+                for (PostEvent event : eventsDuringRebuild) {
+                    // a lobby already in the rows was read after its creation, possibly with later joins
+                    boolean loaded = event.type() == PostEvent.Type.CREATED && event.postId() != null
+                            && slotByPostId.get(event.postId()) >= 0;
+                    if (!loaded) {
+                        apply(event);
+                    }
+                }
+                eventsDuringRebuild = null;
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Lobby index rebuilt with {} lobbies in {} ms, {} events replayed", rows.size(),
+                    (System.nanoTime() - start) / 1_000_000, replayed);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostEvent(PostEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            if (eventsDuringRebuild != null) {
+                eventsDuringRebuild.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every lobby created before the cutoff, mirroring the expiry job's bulk update.
+     * Returns the ids that were evicted.
+     */
+    public long[] evictCreatedBefore(LocalDateTime cutoff) {
+        long cutoffSeconds = cutoff.toEpochSecond(ZoneOffset.UTC);
+        lock.writeLock().lock();
+        try {
+            long[] evicted = new long[live.cardinality()];
+            int n = 0;
+            for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+                if (createdAtSeconds[slot] < cutoffSeconds) {
+                    evicted[n++] = postIds[slot];
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                remove(evicted[i]);
+            }
+            return Arrays.copyOf(evicted, n);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the newest open lobbies matching every non-null filter with at least
+     * {@code minFreeSlots} free slots, newest first.
+     */
+    public List<Long> find(Integer gameId, String rank, Boolean voiceChat, int minFreeSlots, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (gameId != null) {
+                BitSet game = byGame.get(gameId);
+                if (game == null) return List.of();
+                matches.and(game);
+            }
+            if (rank != null) {
+                Integer code = rankCodeByName.get(rank);
+                if (code == null) return List.of();
+                matches.and(byRank.get(code));
+            }
+            if (voiceChat != null) {
+                if (voiceChat) {
+                    matches.and(this.voiceChat);
+                } else {
+                    matches.andNot(this.voiceChat);
+                }
+            }
+            if (minFreeSlots > 0) {
+                BitSet enoughSlots = new BitSet();
+                for (int bucket = Math.min(minFreeSlots, FREE_SLOT_BUCKETS - 1); bucket < FREE_SLOT_BUCKETS; bucket++) {
+                    enoughSlots.or(byFreeSlots[bucket]);
+                }
+                matches.and(enoughSlots);
+            }
+            return newest(matches, minFreeSlots, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // top-N by creation time with a primitive min-heap of (createdAt << SLOT_BITS | slot) keys
+    private List<Long> newest(BitSet matches, int minFreeSlots, int limit) {
+        long[] heap = new long[limit];
+        int heapSize = 0;
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            if (freeSlots[slot] < minFreeSlots) continue; // the last bucket is open-ended
+            long key = (createdAtSeconds[slot] << SLOT_BITS) | slot;
+            if (heapSize < limit) {
+                heap[heapSize] = key;
+                siftUp(heap, heapSize++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, heapSize);
+            }
+        }
+        Arrays.sort(heap, 0, heapSize);
+        List<Long> ids = new ArrayList<>(heapSize);
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ids.add(postIds[(int) (heap[i] & SLOT_MASK)]);
+        }
+        return ids;
+    }
+
+    private void apply(PostEvent event) {
+        switch (event.type()) {
+            case CREATED -> add(event.postId(), event.gameId(), event.rank(), Boolean.TRUE.equals(event.voiceChat()),
+                    event.teamSize() - event.currentPlayers(), event.createdAt());
+            case JOINED -> adjustFreeSlots(event.postId(), -1);
+            case LEFT -> adjustFreeSlots(event.postId(), 1);
+            case DELETED, EXPIRED -> remove(event.postId());
+        }
+    }
+
+    private void stopRecording() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Long postId, Integer gameId, String rank, boolean voice, int free, LocalDateTime createdAt) {
+        if (postId == null || gameId == null || createdAt == null) return;
+        remove(postId);
+
+        int slot = allocateSlot();
+        postIds[slot] = postId;
+        gameIds[slot] = gameId;
+        rankCodes[slot] = rankCode(rank);
+        freeSlots[slot] = (byte) clampFreeSlots(free);
+        createdAtSeconds[slot] = createdAt.toEpochSecond(ZoneOffset.UTC);
+        slotByPostId.put(postId, slot);
+
+        live.set(slot);
+        voiceChat.set(slot, voice);
+        byFreeSlots[bucket(freeSlots[slot])].set(slot);
+        byGame.computeIfAbsent(gameId, id -> new BitSet()).set(slot);
+        if (rankCodes[slot] != NO_RANK) {
+            byRank.computeIfAbsent(rankCodes[slot], code -> new BitSet()).set(slot);
+        }
+    }
+
+    private void adjustFreeSlots(Long postId, int delta) {
+        int slot = postId == null ? -1 : slotByPostId.get(postId);
+        if (slot < 0) return;
+        int before = freeSlots[slot];
+        int after = clampFreeSlots(before + delta);
+        byFreeSlots[bucket(before)].clear(slot);
+        byFreeSlots[bucket(after)].set(slot);
+        freeSlots[slot] = (byte) after;
+    }
+
+    private void remove(Long postId) {
+        int slot = postId == null ? -1 : slotByPostId.remove(postId);
+        if (slot < 0) return;
+
+        live.clear(slot);
+        voiceChat.clear(slot);
+        byFreeSlots[bucket(freeSlots[slot])].clear(slot);
+        BitSet game = byGame.get(gameIds[slot]);
+        if (game != null) game.clear(slot);
+        if (rankCodes[slot] != NO_RANK) byRank.get(rankCodes[slot]).clear(slot);
+
+        if (releasedCount == releasedSlots.length) {
+            releasedSlots = Arrays.copyOf(releasedSlots, releasedCount * 2);
+        }
+        releasedSlots[releasedCount++] = slot;
+    }
+
+    private int allocateSlot() {
+        if (releasedCount > 0) {
+            return releasedSlots[--releasedCount];
+        }
+        if (highWater == postIds.length) {
+            int capacity = postIds.length * 2;
+            if (capacity > SLOT_MASK + 1) {
+                throw new IllegalStateException("Lobby index is full");
+            }
+            postIds = Arrays.copyOf(postIds, capacity);
+            gameIds = Arrays.copyOf(gameIds, capacity);
+            rankCodes = Arrays.copyOf(rankCodes, capacity);
+            freeSlots = Arrays.copyOf(freeSlots, capacity);
+            createdAtSeconds = Arrays.copyOf(createdAtSeconds, capacity);
+        }
+        return highWater++;
+    }
+
+    private int rankCode(String rank) {
+        if (rank == null) return NO_RANK;
+        return rankCodeByName.computeIfAbsent(rank, name -> rankCodeByName.size() + 1);
+    }
+
+    private void reset() {
+        postIds = new long[INITIAL_CAPACITY];
+        gameIds = new int[INITIAL_CAPACITY];
+        rankCodes = new int[INITIAL_CAPACITY];
+        freeSlots = new byte[INITIAL_CAPACITY];
+        createdAtSeconds = new long[INITIAL_CAPACITY];
+        highWater = 0;
+        releasedSlots = new int[64];
+        releasedCount = 0;
+
+        live = new BitSet();
+        voiceChat = new BitSet();
+        byFreeSlots = new BitSet[FREE_SLOT_BUCKETS];
+        for (int i = 0; i < FREE_SLOT_BUCKETS; i++) {
+            byFreeSlots[i] = new BitSet();
+        }
+        byGame = new HashMap<>();
+        byRank = new HashMap<>();
+        rankCodeByName = new HashMap<>();
+        slotByPostId = new LongIntMap(INITIAL_CAPACITY);
+    }
+
+    private static int clampFreeSlots(int free) {
+        return Math.max(0, Math.min(Byte.MAX_VALUE, free));
+    }
+
+    private static int bucket(int free) {
+        return Math.min(free, FREE_SLOT_BUCKETS - 1);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] <= key) break;
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+            if (key <= heap[child]) break;
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+
+    /**
+     * Open-addressing long to int map (post id to slot) without boxing; 0 marks an empty bucket,
+     * which is safe because generated post ids start at 1.
+     */
+    static final class LongIntMap {
+        private long[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        LongIntMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected * 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            mask = capacity - 1;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(long key) {
+            for (int i = index(key); ; i = (i + 1) & mask) {
+                long k = keys[i];
+                if (k == 0) return -1;
+                if (k == key) return values[i];
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int i = index(key);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == 0) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int remove(long key) {
+            int i = index(key);
+            while (keys[i] != key) {
+                if (keys[i] == 0) return -1;
+                i = (i + 1) & mask;
+            }
+            int value = values[i];
+            // backward-shift deletion keeps probe chains intact without tombstones
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = index(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+            size--;
+            return value;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldValues.length * 2];
+            mask = keys.length - 1;
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private int index(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
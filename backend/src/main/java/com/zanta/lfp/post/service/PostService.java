@@ -1,24 +1,38 @@
 package com.zanta.lfp.post.service;
 
-import com.zanta.lfp.user.Dto.UserDto;
 import com.zanta.lfp.game.model.Game;
 import com.zanta.lfp.user.model.User;
 import com.zanta.lfp.post.dto.CreatePostDto;
+import com.zanta.lfp.post.dto.FeedCursor;
+import com.zanta.lfp.post.dto.LobbyQuery;
 import com.zanta.lfp.post.dto.PostDto;
+import com.zanta.lfp.post.dto.PostFeedDto;
+import com.zanta.lfp.post.dto.PostFeedRequest;
+import com.zanta.lfp.post.event.PostEvent;
 import com.zanta.lfp.post.model.Post;
 import com.zanta.lfp.post.model.PostParticipant;
 import com.zanta.lfp.post.repository.PostRepository;
 import com.zanta.lfp.post.repository.PostParticipantRepository;
 import com.zanta.lfp.game.repository.GameRepository;
 import com.zanta.lfp.user.repository.UserRepository;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +41,9 @@ public class PostService {
     private final UserRepository userRepository;
     private final GameRepository gameRepository;
     private final PostParticipantRepository postParticipantRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LobbyIndex lobbyIndex;
 
     public ResponseEntity<?> createPost(CreatePostDto dto ,Long ownerId){
         //get user
@@ -55,35 +72,82 @@ public class PostService {
                 .build();
 
         postRepository.save(post);
+        eventPublisher.publishEvent(PostEvent.of(PostEvent.Type.CREATED, post));
 
         return ResponseEntity.ok(Map.of("message", "Post created successfully", "post", mapToDto(post, ownerId)));
 
     }
 
-    @Transactional
+    // Expired posts are deactivated in the background by PostExpiryJob, so the feed is a pure read
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getAllPosts(Long userId) {
-        // First, deactivate posts older than 6 hours
-        deactivateOldPosts();
-        
-        // Get only active posts
-        List<PostDto> posts = postRepository.findByActiveTrue()
+        // Get only active posts, with owner and game fetched in the same query
+        List<Post> activePosts = postRepository.findActiveFeed();
+        Set<Long> joinedPostIds = findJoinedPostIds(activePosts, userId);
+
+        List<PostDto> posts = activePosts
                 .stream()
-                .map(post -> mapToDto(post, userId))
+                .map(post -> mapToDto(post, joinedPostIds.contains(post.getId())))
                 .toList();
 
         return ResponseEntity.ok(Map.of("posts", posts));
     }
 
-    @Transactional
-    protected void deactivateOldPosts() {
-        LocalDateTime sixHoursAgo = LocalDateTime.now().minusHours(6);
-        List<Post> oldPosts = postRepository.findByActiveTrueAndCreatedAtBefore(sixHoursAgo);
-        for (Post post : oldPosts) {
-            post.setActive(false);
-            postRepository.save(post);
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getFeed(PostFeedRequest request, Long userId) {
+        FeedCursor cursor = FeedCursor.decode(request.cursor());
+        int pageSize = request.pageSize();
+
+        // one extra id tells us whether another page exists
+        List<Long> pageIds = postRepository.findFeedPageIds(
+                request.gameId(),
+                request.rank(),
+                request.voiceChat(),
+                request.onlyOpenSlots(),
+                cursor != null ? cursor.createdAt() : null,
+                cursor != null ? cursor.id() : null,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = pageIds.size() > pageSize;
+        if (hasMore) {
+            pageIds = pageIds.subList(0, pageSize);
+        }
+        if (pageIds.isEmpty()) {
+            return ResponseEntity.ok(new PostFeedDto(List.of(), null));
+        }
+
+        List<Post> page = findInOrder(pageIds);
+        Set<Long> joinedPostIds = findJoinedPostIds(page, userId);
+
+        List<PostDto> posts = page.stream()
+                .map(post -> mapToDto(post, joinedPostIds.contains(post.getId())))
+                .toList();
+
+        String nextCursor = null;
+        if (hasMore && !page.isEmpty()) {
+            Post last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
         }
+        return ResponseEntity.ok(new PostFeedDto(posts, nextCursor));
+    }
+
+    // Open lobby search, answered by the in-memory index once it is loaded
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> findLobbies(LobbyQuery query, Long userId) {
+        List<Long> ids = lobbyIndex.isReady()
+                ? lobbyIndex.find(query.gameId(), query.rank(), query.voiceChat(), query.freeSlots(), query.pageSize())
+                : postRepository.findLobbyIds(query.gameId(), query.rank(), query.voiceChat(), query.freeSlots(),
+                        PageRequest.of(0, query.pageSize()));
+
+        List<Post> lobbies = findInOrder(ids);
+        Set<Long> joinedPostIds = findJoinedPostIds(lobbies, userId);
+        List<PostDto> posts = lobbies.stream()
+                .map(post -> mapToDto(post, joinedPostIds.contains(post.getId())))
+                .toList();
+        return ResponseEntity.ok(Map.of("posts", posts));
     }
 
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getPost(Long id, Long userId) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found , no post with this Id"));
@@ -108,55 +172,80 @@ public class PostService {
         }
 
         postRepository.delete(post);
+        eventPublisher.publishEvent(PostEvent.of(PostEvent.Type.DELETED, post));
         return ResponseEntity.ok(Map.of("message", "Post deleted successfully"));
     }
 
-    @Transactional
     public ResponseEntity<?> joinPost(Long postId, Long userId) {
+        try {
+            return transactionTemplate.execute(status -> {
+                ResponseEntity<?> response = claimSlot(postId, userId);
+                if (!response.getStatusCode().is2xxSuccessful()) {
+                    status.setRollbackOnly();
+                }
+                return response;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // The user id comes from the authenticated principal, so the FK to users cannot be what failed
+            String constraint = violatedConstraint(ex);
+            if (constraint.contains(PostParticipant.POST_USER_CONSTRAINT)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "You have already joined this post"));
+            }
+            if (constraint.contains(PostParticipant.POST_FOREIGN_KEY)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Post not found"));
+            }
+            throw ex;
+        }
+    }
+
+    private static String violatedConstraint(DataIntegrityViolationException ex) {
+        String constraint = ex.getCause() instanceof ConstraintViolationException violation
+                ? violation.getConstraintName()
+                : null;
+        return String.valueOf(constraint != null ? constraint : ex.getMostSpecificCause().getMessage())
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private ResponseEntity<?> claimSlot(Long postId, Long userId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
         // Check if user is the creator
         if (post.getOwner().getId().equals(userId)) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "You are the creator, you are already in"));
         }
 
-        // Check if user has already joined
-        if (postParticipantRepository.existsByPostIdAndUserId(postId, userId)) {
+        // Check if post is active
+        if (!post.getActive()) {
             return ResponseEntity.badRequest()
-                    .body(Map.of("error", "You have already joined this post"));
+                    .body(Map.of("error", "Post is no longer active"));
         }
 
-        // Check if post is full
-        if (post.getCurrentPlayers() >= post.getTeamSize()) {
+        // Take a slot first: the conditional update locks the post row exclusively, so concurrent joins
+        // queue on it. Inserting the participant first would take a shared lock on the post row for the
+        // foreign key check, and two joins upgrading those shared locks deadlock on InnoDB.
+        if (postRepository.claimSlot(postId) == 0) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "Post is full"));
         }
 
-        // Check if post is active
-        if (!post.getActive()) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Post is no longer active"));
-        }
-
-        // Create participant record
+        // A duplicate join fails here on the unique constraint and the caller rolls the slot back
         PostParticipant participant = PostParticipant.builder()
                 .post(post)
-                .user(user)
+                .user(userRepository.getReferenceById(userId))
                 .build();
-        postParticipantRepository.save(participant);
+        postParticipantRepository.saveAndFlush(participant);
 
-        // Increment current players
+        // post is detached after the bulk update, this only adjusts the returned snapshot
         post.setCurrentPlayers(post.getCurrentPlayers() + 1);
-        postRepository.save(post);
+        eventPublisher.publishEvent(PostEvent.of(PostEvent.Type.JOINED, post));
 
         return ResponseEntity.ok(Map.of(
                 "message", "You joined successfully",
-                "post", mapToDto(post, userId)
+                "post", mapToDto(post, true)
         ));
     }
 
@@ -165,51 +254,60 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new IllegalArgumentException("Post not found"));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
         // Check if user is the creator
         if (post.getOwner().getId().equals(userId)) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "You are the creator, you cannot leave your own post"));
         }
 
-        // Check if user has joined
-        if (!postParticipantRepository.existsByPostIdAndUserId(postId, userId)) {
+        // Remove participant, nothing removed means the user had not joined
+        if (postParticipantRepository.removeParticipant(postId, userId) == 0) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", "You have not joined this post"));
         }
 
-        // Remove participant
-        postParticipantRepository.deleteByPostIdAndUserId(postId, userId);
-
         // Decrement current players
+        postRepository.releaseSlot(postId);
         post.setCurrentPlayers(Math.max(0, post.getCurrentPlayers() - 1));
-        postRepository.save(post);
+        eventPublisher.publishEvent(PostEvent.of(PostEvent.Type.LEFT, post));
 
         return ResponseEntity.ok(Map.of(
                 "message", "You left the post successfully",
-                "post", mapToDto(post, userId)
+                "post", mapToDto(post, false)
         ));
     }
 
+    // Hydrates posts by id with one fetch-join query, keeping the order of the given ids
+    private List<Post> findInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Post> postsById = postRepository.findFeedByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // One post_id IN (...) lookup for the whole page instead of one exists query per post
+    private Set<Long> findJoinedPostIds(List<Post> posts, Long userId) {
+        if (userId == null || posts.isEmpty()) {
+            return Set.of();
+        }
+        List<Long> postIds = posts.stream().map(Post::getId).toList();
+        return postParticipantRepository.findJoinedPostIds(userId, postIds);
+    }
+
     // Mapper
     private PostDto mapToDto(Post post, Long userId) {
         boolean hasJoined = userId != null && postParticipantRepository.existsByPostIdAndUserId(post.getId(), userId);
-        return new PostDto(
-                post.getId(),
-                post.getTitle(),
-                post.getPartyCode(),
-                post.getTeamSize(),
-                post.getCurrentPlayers(),
-                UserDto.from(post.getOwner()),
-                post.getGame(),
-                post.getCreatedAt(),
-                post.getActive(),
-                post.getPlayerRank(),
-                post.getVoiceChat(),
-                hasJoined
-        );
+        return mapToDto(post, hasJoined);
+    }
+
+    private PostDto mapToDto(Post post, boolean hasJoined) {
+        return PostDto.from(post, hasJoined);
     }
 
 }
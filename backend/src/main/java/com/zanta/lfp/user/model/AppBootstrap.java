@@ -0,0 +1,27 @@
+package com.zanta.lfp.user.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// single row recording one-time decisions that must hold across restarts and instances
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "app_bootstrap")
+public class AppBootstrap {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    // set once the first user ever has been made ADMIN, or when users already existed
+    @Column(nullable = false)
+    private boolean adminClaimed;
+}
@@ -0,0 +1,17 @@
+package com.zanta.lfp.user.repository;
+
+import com.zanta.lfp.user.model.AppBootstrap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppBootstrapRepository extends JpaRepository<AppBootstrap, Integer> {
+
+    // 1 for the only caller that flips the flag; the row lock makes concurrent claimers wait for its commit
+    @Modifying
+    @Query("update AppBootstrap b set b.adminClaimed = true " +
+            "where b.id = " + AppBootstrap.ID + " and b.adminClaimed = false")
+    int claimAdmin();
+}
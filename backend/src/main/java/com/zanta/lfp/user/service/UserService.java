@@ -1,6 +1,8 @@
 package com.zanta.lfp.user.service;
 
 
+import com.zanta.lfp.config.PrincipalCache;
+import com.zanta.lfp.post.event.PostEvent;
 import com.zanta.lfp.post.model.Post;
 import com.zanta.lfp.post.model.PostParticipant;
 import com.zanta.lfp.post.repository.PostParticipantRepository;
@@ -9,6 +11,7 @@ import com.zanta.lfp.user.Dto.UserDto;
 import com.zanta.lfp.user.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -24,6 +27,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final PostParticipantRepository postParticipantRepository;
     private final PostRepository postRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ResponseEntity<?> getAllUsers() {
         var users = userRepository.findAll();
@@ -40,12 +44,14 @@ public class UserService {
         }
         user.setRole(ADMIN);
         userRepository.save(user);
+        eventPublisher.publishEvent(new PrincipalCache.UserChanged(user.getUsername()));
         return ResponseEntity.status(HttpStatus.CREATED).build(); // return created DTO in body
     }
 
     @Transactional
     public ResponseEntity<?> deleteUser(Long id) {
-        if (!userRepository.existsById(id)) {
+        var user = userRepository.findById(id).orElse(null);
+        if (user == null) {
             return ResponseEntity.notFound().build();
         }
 
@@ -62,10 +68,12 @@ public class UserService {
             postParticipantRepository.deleteByPostId(post.getId());
             // Delete the post
             postRepository.delete(post);
+            eventPublisher.publishEvent(PostEvent.of(PostEvent.Type.DELETED, post));
         }
 
         // 4. Finally, delete the user
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new PrincipalCache.UserChanged(user.getUsername()));
         return ResponseEntity.ok(Map.of("message", "User deleted successfully"));
     }
 }
@@ -0,0 +1,35 @@
+package com.zanta.lfp;
+
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.user.enums.ERole;
+import com.zanta.lfp.user.enums.Gender;
+import com.zanta.lfp.user.model.User;
+
+import java.util.List;
+
+// Unsaved users and games for tests; callers pick unique names when the database is shared
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static User user(String username) {
+        return User.builder()
+                .firstName("Test")
+                .lastName("Player")
+                .username(username)
+                .email(username + "@example.com")
+                .password("not-used")
+                .gender(Gender.MALE)
+                .role(ERole.USER)
+                .build();
+    }
+
+    public static Game game(String name) {
+        return game(name, 5);
+    }
+
+    public static Game game(String name, int players) {
+        return new Game(0, name, players, "https://example.com/game.png", List.of("Ranked", "Casual"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.zanta.lfp.auth.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.auth.dto.AuthenticationResponse;
+import com.zanta.lfp.auth.dto.RegisterRequest;
+import com.zanta.lfp.user.enums.ERole;
+import com.zanta.lfp.user.enums.Gender;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.AppBootstrapRepository;
+import com.zanta.lfp.user.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every test starts from an empty database, as the first deployment would
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+class AuthenticationServiceTests {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+    @Autowired
+    private AdminBootstrap adminBootstrap;
+    @Autowired
+    private AppBootstrapRepository bootstrapRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void onlyOneOfConcurrentFirstSignupsBecomesAdmin() {
+        List<CompletableFuture<AuthenticationResponse>> signups = IntStream.range(0, 8)
+                .mapToObj(i -> authenticationService.register(request("first" + i)))
+                .toList();
+        CompletableFuture.allOf(signups.toArray(new CompletableFuture<?>[0])).join();
+
+        assertThat(userRepository.findAll()).extracting(User::getRole)
+                .hasSize(8)
+                .containsOnlyOnce(ERole.ADMIN);
+        assertThat(authenticationService.register(request("later")).join().getUser().getRole()).isEqualTo(ERole.USER);
+    }
+
+    @Test
+    void signupsAfterARestartWithUsersButNoAdminStayUsers() {
+        userRepository.save(TestFixtures.user("existing"));
+        // a deployment whose users predate the marker, or whose admin was removed, then restarts
+        bootstrapRepository.deleteAll();
+        adminBootstrap.createMarker();
+
+        assertThat(authenticationService.register(request("newcomer")).join().getUser().getRole()).isEqualTo(ERole.USER);
+        assertThat(userRepository.findAll()).extracting(User::getRole).containsOnly(ERole.USER);
+    }
+
+    private static RegisterRequest request(String username) {
+        return new RegisterRequest("Signup", "Tester", username, username + "@example.com",
+                "correct horse battery staple", Gender.FEMALE);
+    }
+}
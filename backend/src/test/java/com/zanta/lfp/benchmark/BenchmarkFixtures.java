@@ -0,0 +1,59 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.user.enums.Gender;
+import com.zanta.lfp.user.model.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Detached entities shaped like production data, shared by the benchmarks
+final class BenchmarkFixtures {
+
+    private static final String[] RANKS = {"Bronze", "Silver", "Gold", "Platinum", "Diamond", null};
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<Post> posts(int count) {
+        List<Game> games = List.of(
+                new Game(1, "Valorant", 5, "https://example.com/valorant.png", List.of("Competitive", "Unrated", "Spike Rush")),
+                new Game(2, "Apex Legends", 3, "https://example.com/apex.png", List.of("Ranked", "Trios", "Duos")),
+                new Game(3, "League of Legends", 5, "https://example.com/lol.png", List.of("Ranked Solo", "Ranked Flex", "ARAM")));
+
+        List<Post> posts = new ArrayList<>(count);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Game game = games.get(i % games.size());
+            posts.add(Post.builder()
+                    .id((long) i + 1)
+                    .title("Looking for players to grind " + game.getName() + " tonight #" + i)
+                    .partyCode("PARTY-" + (100000 + i))
+                    .teamSize(game.getPlayers())
+                    .currentPlayers(i % game.getPlayers())
+                    .owner(user(i))
+                    .game(game)
+                    .createdAt(now.minusMinutes(i))
+                    .active(true)
+                    .playerRank(RANKS[i % RANKS.length])
+                    .voiceChat(i % 2 == 0)
+                    .build());
+        }
+        return posts;
+    }
+
+    static User user(int i) {
+        User user = TestFixtures.user("player" + i);
+        user.setId((long) i + 1);
+        user.setLastName("Number" + i);
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z7ZgZC1zN3y1rC9D1Z1Z1Z1Z");
+        user.setGender(i % 2 == 0 ? Gender.MALE : Gender.FEMALE);
+        user.setJoinDate(LocalDateTime.now());
+        user.setRate(BigDecimal.valueOf(4.25));
+        return user;
+    }
+}
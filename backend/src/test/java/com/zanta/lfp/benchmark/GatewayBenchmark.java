@@ -0,0 +1,129 @@
+package com.zanta.lfp.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreakerRegistry;
+import com.zanta.lfp.cloud.gateway.ApiGateway;
+import com.zanta.lfp.cloud.gateway.ApiGateway.GatewayRequest;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import com.zanta.lfp.config.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxied calls to three local stub upstreams serving a 4 KB JSON body, against the same calls
+ * made straight to an upstream with an equally pooled client. The difference between
+ * {@code viaGateway} and {@code direct} is the latency the gateway adds, including the hand-off
+ * of the asynchronous upstream call; run with {@code -bm thrpt} for requests per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+// without nodelay the stub server's separate header and body writes hit the 40 ms delayed-ACK stall
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class GatewayBenchmark {
+
+    private static final String SERVICE = "posts";
+
+    private final List<HttpServer> upstreams = new ArrayList<>();
+    private HttpClient directClient;
+    private URI directUri;
+    private ApiGateway gateway;
+    private GatewayRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] body = ("{\"items\":\"" + "x".repeat(4096 - 12) + "\"}").getBytes();
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            server.createContext("/", exchange -> {
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            upstreams.add(server);
+            urls.add("http://127.0.0.1:" + server.getAddress().getPort());
+        }
+
+        LoadBalancer loadBalancer = new LoadBalancer(LoadBalancer.LoadBalancingStrategy.POWER_OF_TWO_CHOICES, Duration.ofSeconds(30));
+        loadBalancer.updateInstances(SERVICE, urls);
+        JwtService jwtService = new JwtService(10_000);
+        String token = jwtService.generateToken(TestFixtures.user("benchmark-user"));
+        ApiGateway.Config config = new ApiGateway.Config(Duration.ofSeconds(2), Duration.ofSeconds(10),
+                RateLimiter.Budget.tokenBucket(Integer.MAX_VALUE / 2, Duration.ofSeconds(1)));
+        gateway = new ApiGateway(loadBalancer, new RateLimiter(),
+                new CircuitBreakerRegistry(CircuitBreaker.Config.defaults(), new SimpleMeterRegistry()),
+                new DistributedTracing(), t -> jwtService.parseClaims(t).getSubject(), config);
+        request = new GatewayRequest("GET", "/api/v1/posts/feed?gameId=1",
+                Map.of("Authorization", List.of("Bearer " + token), "Accept", List.of("application/json")),
+                "127.0.0.1", -1, InputStream::nullInputStream);
+
+        directClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        directUri = URI.create(urls.get(0) + "/api/v1/posts/feed?gameId=1");
+    }
+
+    @TearDown
+    public void tearDown() {
+        gateway.shutdown();
+        directClient.close();
+        upstreams.forEach(server -> server.stop(0));
+    }
+
+    @Benchmark
+    public long direct() throws IOException, InterruptedException {
+        HttpResponse<InputStream> response = directClient.send(
+                HttpRequest.newBuilder(directUri).header("Accept", "application/json").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream in = response.body()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public long viaGateway() throws IOException {
+        HttpResponse<InputStream> response = gateway.routeRequest(SERVICE, request).join();
+        try (InputStream in = response.body()) {
+            return in.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+}
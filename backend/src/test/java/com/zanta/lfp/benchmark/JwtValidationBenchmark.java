@@ -0,0 +1,85 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.config.JwtService;
+import com.zanta.lfp.user.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing a token at login and of authenticating a bearer token per request.
+ * legacyPerRequest reproduces the old filter path: three full parses, each decoding the secret
+ * and building a new key and parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET_KEY = "8aa84bd45ce7f017ae2b5bab44391a8d8928c55d98cfc851acc1035653fed4b8";
+
+    private JwtService uncachedJwtService;
+    private JwtService cachedJwtService;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncachedJwtService = new JwtService(0);
+        cachedJwtService = new JwtService(10_000);
+        user = TestFixtures.user("benchmark-user");
+        token = cachedJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyPerRequest() {
+        String username = legacyClaims(token).getSubject();
+        return legacyClaims(token).getSubject().equals(username)
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean parseOncePerRequest() {
+        Claims claims = uncachedJwtService.parseClaims(token);
+        return uncachedJwtService.isTokenValid(claims, user);
+    }
+
+    @Benchmark
+    public boolean verifiedTokenCache() {
+        Claims claims = cachedJwtService.parseClaims(token);
+        return cachedJwtService.isTokenValid(claims, user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
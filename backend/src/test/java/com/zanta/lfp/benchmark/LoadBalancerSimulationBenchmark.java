@@ -0,0 +1,81 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer.Instance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated outbound calls against eight instances where one is ten times slower than the rest.
+ * Each instance serves its in-flight calls in parallel but slows down linearly with load, so a
+ * strategy that keeps feeding the slow or busy instance shows up in the p99 / p99.9 of
+ * {@code simulatedCall}. {@code select} measures the raw cost of one selection.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(32)
+@Fork(1)
+public class LoadBalancerSimulationBenchmark {
+
+    private static final String SERVICE = "simulated";
+    private static final int INSTANCES = 8;
+    private static final long FAST_SERVICE_NANOS = 100_000;
+    private static final long SLOW_SERVICE_NANOS = 1_000_000;
+
+    @Param({"ROUND_ROBIN", "RANDOM", "LEAST_CONNECTIONS", "POWER_OF_TWO_CHOICES"})
+    private LoadBalancer.LoadBalancingStrategy strategy;
+
+    private LoadBalancer loadBalancer;
+    private Map<String, Long> serviceNanos;
+
+    @Setup
+    public void setUp() {
+        loadBalancer = new LoadBalancer(strategy, Duration.ofSeconds(30));
+        List<String> urls = new ArrayList<>();
+        serviceNanos = new HashMap<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            String url = "http://instance-" + i + ":8080";
+            urls.add(url);
+            serviceNanos.put(url, i == 0 ? SLOW_SERVICE_NANOS : FAST_SERVICE_NANOS);
+        }
+        loadBalancer.updateInstances(SERVICE, urls);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public long simulatedCall() {
+        Instance instance = loadBalancer.select(SERVICE);
+        long latency = serviceNanos.get(instance.url()) * instance.inFlight();
+        LockSupport.parkNanos(latency);
+        loadBalancer.release(instance, latency, true);
+        return latency;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public Instance select() {
+        Instance instance = loadBalancer.select(SERVICE);
+        loadBalancer.release(instance, FAST_SERVICE_NANOS, true);
+        return instance;
+    }
+}
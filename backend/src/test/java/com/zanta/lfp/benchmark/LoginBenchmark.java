@@ -0,0 +1,138 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.auth.dto.AuthenticationRequest;
+import com.zanta.lfp.auth.dto.AuthenticationResponse;
+import com.zanta.lfp.auth.service.AuthenticationService;
+import com.zanta.lfp.config.JwtService;
+import com.zanta.lfp.user.Dto.UserDto;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Login under concurrent load against a users table that answers after {@code queryLatencyMicros}.
+ * {@code legacy} reproduces the old pipeline: authenticate, then existsByUsername and
+ * findByUsername again, on the calling thread. {@code pooled} is the current service, one query
+ * plus BCrypt on the password hashing pool. Sample mode reports p99; run with {@code -bm thrpt}
+ * for logins per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final int USERS = 100;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"4", "10"})
+    private int strength;
+
+    @Param({"500"})
+    private long queryLatencyMicros;
+
+    private UserRepository repository;
+    private AuthenticationManager authenticationManager;
+    private JwtService jwtService;
+    private ThreadPoolExecutor passwordHashingExecutor;
+    private AuthenticationService service;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        String encoded = encoder.encode(PASSWORD);
+        Map<String, User> users = new HashMap<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = BenchmarkFixtures.user(i);
+            user.setPassword(encoded);
+            users.put(user.getUsername(), user);
+        }
+        repository = usersTable(users);
+
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(username -> repository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+        provider.setPasswordEncoder(encoder);
+        authenticationManager = new ProviderManager(provider);
+        jwtService = new JwtService(10_000);
+
+        int cpus = Runtime.getRuntime().availableProcessors();
+        passwordHashingExecutor = new ThreadPoolExecutor(cpus, cpus, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+        // login never reaches the signup-only admin bootstrap and transaction
+        service = new AuthenticationService(repository, encoder, jwtService, authenticationManager, passwordHashingExecutor,
+                null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public AuthenticationResponse legacy() {
+        AuthenticationRequest request = request();
+        authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
+        if (!repository.existsByUsername(request.getUsername())) {
+            throw new IllegalStateException("User not found");
+        }
+        User user = repository.findByUsername(request.getUsername()).orElseThrow();
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(user))
+                .user(UserDto.from(user))
+                .build();
+    }
+
+    @Benchmark
+    public AuthenticationResponse pooled() {
+        return service.authenticate(request()).join();
+    }
+
+    private static AuthenticationRequest request() {
+        int i = (int) (Thread.currentThread().threadId() % USERS);
+        return new AuthenticationRequest("player" + i, PASSWORD);
+    }
+
+    // only the lookups used by login are answered, each after one simulated round trip
+    private UserRepository usersTable(Map<String, User> users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryLatencyMicros));
+                    return switch (method.getName()) {
+                        case "findByUsername" -> Optional.ofNullable(users.get((String) args[0]));
+                        case "existsByUsername" -> users.containsKey((String) args[0]);
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+}
@@ -0,0 +1,55 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.post.dto.PostDto;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.user.Dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for one feed page (the mapping PostService applies to every post).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostMappingBenchmark {
+
+    @Param({"20", "100", "500"})
+    private int posts;
+
+    private List<Post> page;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkFixtures.posts(posts);
+    }
+
+    @Benchmark
+    public List<PostDto> postDtoFrom() {
+        return page.stream()
+                .map(post -> PostDto.from(post, post.getId() % 3 == 0))
+                .toList();
+    }
+
+    @Benchmark
+    public List<UserDto> userDtoFrom() {
+        return page.stream()
+                .map(post -> UserDto.from(post.getOwner()))
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter.Budget;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit decisions per second with every core hammering the limiter, either spread over
+ * many clients (the normal case) or all on one hot key (a single abusive client).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    @Param({"TOKEN_BUCKET", "SLIDING_WINDOW_LOG"})
+    private RateLimiter.Mode mode;
+
+    @Param({"1", "10000"})
+    private int clients;
+
+    private RateLimiter rateLimiter;
+    private Budget budget;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+        budget = new Budget(mode, 600, Duration.ofMinutes(1));
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "read:user:" + i;
+        }
+    }
+
+    @Benchmark
+    public boolean tryAcquire() {
+        String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        return rateLimiter.tryAcquire(key, budget).allowed();
+    }
+}
@@ -0,0 +1,181 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.auth.dto.AuthenticationResponse;
+import com.zanta.lfp.auth.dto.RegisterRequest;
+import com.zanta.lfp.auth.service.AdminBootstrap;
+import com.zanta.lfp.auth.service.AuthenticationService;
+import com.zanta.lfp.config.JwtService;
+import com.zanta.lfp.user.Dto.UserDto;
+import com.zanta.lfp.user.enums.ERole;
+import com.zanta.lfp.user.enums.Gender;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.AppBootstrapRepository;
+import com.zanta.lfp.user.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Burst of signups against a users table where each statement costs one round trip and
+ * {@code COUNT(*)} also scans {@code countLatencyMicros} worth of index. {@code legacy} is the old
+ * path: existsByUsername, existsByEmail, count and insert on the calling thread; {@code pooled} is
+ * the current service, a single insert with BCrypt on the password hashing pool, after one admin
+ * bootstrap claim per instance. The statements per signup are printed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+@Fork(1)
+public class RegistrationBenchmark {
+
+    @Param({"500"})
+    private long queryLatencyMicros;
+
+    @Param({"5000"})
+    private long countLatencyMicros;
+
+    private final AtomicLong signups = new AtomicLong();
+    private final AtomicLong statements = new AtomicLong();
+    private UserRepository repository;
+    private BCryptPasswordEncoder encoder;
+    private JwtService jwtService;
+    private ThreadPoolExecutor passwordHashingExecutor;
+    private AuthenticationService service;
+
+    @Setup
+    public void setUp() {
+        repository = usersTable();
+        encoder = new BCryptPasswordEncoder(4);
+        jwtService = new JwtService(10_000);
+        int cpus = Runtime.getRuntime().availableProcessors();
+        passwordHashingExecutor = new ThreadPoolExecutor(cpus, cpus, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64), new ThreadPoolExecutor.AbortPolicy());
+        AdminBootstrap adminBootstrap = new AdminBootstrap(bootstrapTable(), repository);
+        service = new AuthenticationService(repository, encoder, jwtService, null, passwordHashingExecutor,
+                adminBootstrap, new TransactionTemplate(new NoOpTransactionManager()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        System.out.printf("%n%.2f statements per signup%n", (double) statements.getAndSet(0) / signups.getAndSet(0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public AuthenticationResponse legacy() {
+        RegisterRequest request = request();
+        if (repository.existsByUsername(request.getUsername())) {
+            throw new IllegalStateException("Username already taken");
+        }
+        if (repository.existsByEmail(request.getEmail())) {
+            throw new IllegalStateException("Email already taken");
+        }
+        ERole role = repository.count() == 0 ? ERole.ADMIN : ERole.USER;
+        User user = User.builder()
+                .firstName(request.getFirstName())
+                .lastName(request.getLastName())
+                .username(request.getUsername())
+                .email(request.getEmail())
+                .password(encoder.encode(request.getPassword()))
+                .role(role)
+                .gender(request.getGender())
+                .joinDate(LocalDateTime.now())
+                .build();
+        repository.save(user);
+        return AuthenticationResponse.builder()
+                .token(jwtService.generateToken(user))
+                .user(UserDto.from(user))
+                .build();
+    }
+
+    @Benchmark
+    public AuthenticationResponse pooled() {
+        return service.register(request()).join();
+    }
+
+    private RegisterRequest request() {
+        long n = signups.incrementAndGet();
+        return new RegisterRequest("Player", "Number" + n, "player" + n, "player" + n + "@example.com",
+                "correct horse battery staple", Gender.FEMALE);
+    }
+
+    // every username is new, so the probes find nothing and the insert succeeds
+    private UserRepository usersTable() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    statements.incrementAndGet();
+                    long latencyMicros = method.getName().equals("count") ? countLatencyMicros : queryLatencyMicros;
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+                    return switch (method.getName()) {
+                        case "existsByUsername", "existsByEmail" -> false;
+                        case "count" -> 1_000_000L;
+                        case "save" -> args[0];
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                });
+    }
+
+    // the first admin was claimed long ago
+    private AppBootstrapRepository bootstrapTable() {
+        return (AppBootstrapRepository) Proxy.newProxyInstance(AppBootstrapRepository.class.getClassLoader(),
+                new Class<?>[]{AppBootstrapRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("claimAdmin")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    statements.incrementAndGet();
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(queryLatencyMicros));
+                    return 0;
+                });
+    }
+
+    // the users table stub has no transactions; the legacy path's save() was not wrapped either
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
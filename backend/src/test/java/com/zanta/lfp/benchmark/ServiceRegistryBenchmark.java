@@ -0,0 +1,78 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.cloud.registry.ServiceRegistry;
+import com.zanta.lfp.cloud.registry.ServiceRegistry.ServiceInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thousands of instances heartbeating concurrently while other threads resolve services and
+ * one thread keeps sweeping, which is the registry's steady state.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ServiceRegistryBenchmark {
+
+    private static final int SERVICES = 50;
+
+    @Param({"1000", "10000"})
+    private int instances;
+
+    private ServiceRegistry registry;
+    private String[] serviceNames;
+    private String[] instanceIds;
+
+    @Setup
+    public void setUp() {
+        registry = new ServiceRegistry(Duration.ofMinutes(5), Duration.ofMinutes(10));
+        serviceNames = new String[instances];
+        instanceIds = new String[instances];
+        for (int i = 0; i < instances; i++) {
+            serviceNames[i] = "service-" + (i % SERVICES);
+            instanceIds[i] = "instance-" + i;
+            registry.register(new ServiceInstance(instanceIds[i], serviceNames[i], "10.0." + (i / 250) + "." + (i % 250), 8080));
+        }
+    }
+
+    @Benchmark
+    @Group("steadyState")
+    @GroupThreads(8)
+    public boolean heartbeat() {
+        int i = ThreadLocalRandom.current().nextInt(instances);
+        return registry.receiveHeartbeat(serviceNames[i], instanceIds[i]);
+    }
+
+    @Benchmark
+    @Group("steadyState")
+    @GroupThreads(8)
+    public List<ServiceInstance> getInstances() {
+        return registry.getInstances(serviceNames[ThreadLocalRandom.current().nextInt(SERVICES)]);
+    }
+
+    @Benchmark
+    @Group("steadyState")
+    @GroupThreads(1)
+    public void sweep() {
+        registry.sweep();
+    }
+}
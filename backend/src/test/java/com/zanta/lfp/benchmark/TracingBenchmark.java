@@ -0,0 +1,66 @@
+package com.zanta.lfp.benchmark;
+
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import com.zanta.lfp.cloud.tracing.DistributedTracing.Span;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of tracing one feed request shaped like production: a root span with a controller,
+ * service and two repository spans, at different head sample rates. Compare against the
+ * feed request latency (milliseconds) to get the relative overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class TracingBenchmark {
+
+    @Param({"0.0", "0.01", "1.0"})
+    private double headSampleRate;
+
+    private DistributedTracing tracing;
+
+    @Setup
+    public void setUp() {
+        DistributedTracing.Config config = new DistributedTracing.Config(
+                "lfp", headSampleRate, Duration.ofMillis(500), 65536, 512);
+        tracing = new DistributedTracing(config, spans -> { }, new SimpleMeterRegistry());
+    }
+
+    @Setup(Level.Iteration)
+    public void drain() {
+        tracing.flush();
+    }
+
+    @Benchmark
+    public Span tracedFeedRequest() {
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", null);
+        Span controller = tracing.startSpan("PostController.getFeed");
+        Span service = tracing.startSpan("PostService.getFeed");
+        tracing.end(tracing.startSpan("PostRepository.findFeedPageIds"));
+        tracing.end(tracing.startSpan("PostRepository.findFeedByIdIn"));
+        tracing.end(service);
+        tracing.end(controller);
+        tracing.end(root);
+        return root;
+    }
+}
@@ -0,0 +1,173 @@
+package com.zanta.lfp.cloud.circuitbreaker;
+
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker.CircuitState;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker("test",
+            new CircuitBreaker.Config(10, 4, 50, 50, Duration.ofSeconds(1), Duration.ofSeconds(30), 2,
+                    ex -> !(ex instanceof IllegalArgumentException)),
+            clock::get);
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        succeed();
+        succeed();
+        fail();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+
+        fail();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.execute(() -> "called", ex -> "fallback")).isEqualTo("fallback");
+        assertThat(breaker.getNotPermittedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void opensOnSlowCallsEvenWhenTheySucceed() {
+        for (int i = 0; i < 4; i++) {
+            breaker.execute(() -> {
+                advance(Duration.ofSeconds(2));
+                return "slow";
+            }, ex -> "fallback");
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    @Test
+    void ignoredExceptionsAreRethrownWithoutCounting() {
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                throw new IllegalArgumentException("bad request");
+            }, ex -> "fallback")).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void halfOpenProbesCloseTheCircuitAfterTheOpenDuration() {
+        trip();
+        advance(Duration.ofSeconds(30));
+
+        succeed();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+        succeed();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void failedProbesReopenTheCircuit() {
+        trip();
+        advance(Duration.ofSeconds(30));
+
+        fail();
+        fail();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.execute(() -> "called", ex -> "fallback")).isEqualTo("fallback");
+    }
+
+    @Test
+    void errorsInHalfOpenProbesAreRecordedAndRethrown() {
+        trip();
+        advance(Duration.ofSeconds(30));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> breaker.execute(() -> {
+                throw new StackOverflowError("probe blew up");
+            }, ex -> "fallback")).isInstanceOf(StackOverflowError.class);
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+
+        advance(Duration.ofSeconds(30));
+        succeed();
+        succeed();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void onlyTheConfiguredNumberOfProbesRunConcurrently() throws Exception {
+        trip();
+        advance(Duration.ofSeconds(30));
+
+        AtomicInteger attempted = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            for (int i = 0; i < 16; i++) {
+                executor.submit(() -> breaker.execute(() -> {
+                    attempted.incrementAndGet();
+                    await(release);
+                    return "probe";
+                }, ex -> "fallback"));
+            }
+            executor.shutdown();
+            assertThat(executor.awaitTermination(200, TimeUnit.MILLISECONDS)).isFalse();
+        } finally {
+            release.countDown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(attempted.get()).isEqualTo(2);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+    }
+
+    @Test
+    void asynchronousPermitsRecordTheirOutcomeWhenCompleted() {
+        CircuitBreaker.Permit[] permits = new CircuitBreaker.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = breaker.tryAcquirePermission();
+        }
+        permits[0].onError(new IllegalArgumentException("not counted"));
+        permits[1].onSuccess();
+        permits[2].onError(new IllegalStateException("upstream down"));
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+
+        permits[3].onError(new IllegalStateException("upstream down"));
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.getNotPermittedCalls()).isEqualTo(1);
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            fail();
+        }
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+    }
+
+    private void succeed() {
+        breaker.execute(() -> "ok", ex -> "fallback");
+    }
+
+    private void fail() {
+        breaker.execute(() -> {
+            throw new IllegalStateException("database down");
+        }, ex -> "fallback");
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
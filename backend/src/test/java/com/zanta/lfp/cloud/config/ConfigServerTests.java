@@ -0,0 +1,117 @@
+package com.zanta.lfp.cloud.config;
+
+import com.zanta.lfp.cloud.config.ConfigServer.ConfigChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigServerTests {
+
+    @TempDir
+    Path directory;
+
+    private final List<ConfigChange> changes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void loadsEveryScopeFromTheDirectoryAtStartup() throws IOException {
+        write("lfp-default.properties", "lfp.posts.expiry-window=4h\n", 1);
+        write("lfp-load-test.properties", "lfp.rate-limit.read-per-minute=100000\n", 1);
+        write("notes.txt", "ignored", 1);
+
+        ConfigServer server = server();
+
+        assertThat(server.getVersion()).isEqualTo(1);
+        assertThat(server.getProperty("lfp", "default", "lfp.posts.expiry-window")).isEqualTo("4h");
+        assertThat(server.getConfiguration("lfp-load", "test")).containsEntry("lfp.rate-limit.read-per-minute", "100000");
+        assertThat(server.getConfiguration("lfp", "prod")).isEmpty();
+    }
+
+    @Test
+    void listenersOnlySeeTheKeysThatChanged() throws IOException {
+        write("lfp-default.properties", "a=1\nb=2\nc=3\n", 1);
+        ConfigServer server = server();
+        server.addListener("lfp", "default", changes::add);
+        server.addListener("lfp", "prod", change -> { throw new AssertionError("wrong scope notified"); });
+
+        write("lfp-default.properties", "a=1\nb=20\nd=4\n", 2);
+        server.refreshAll();
+
+        assertThat(changes).hasSize(1);
+        ConfigChange change = changes.get(0);
+        assertThat(change.version()).isEqualTo(2);
+        assertThat(change.changedKeys()).isEqualTo(Set.of("b", "c", "d"));
+        assertThat(change.previous()).containsEntry("c", "3");
+        assertThat(change.current()).isEqualTo(Map.of("a", "1", "b", "20", "d", "4"));
+        assertThat(server.getProperty("lfp", "default", "b")).isEqualTo("20");
+    }
+
+    @Test
+    void unchangedFilesDoNotCreateANewVersion() throws IOException {
+        write("lfp-default.properties", "a=1\n", 1);
+        ConfigServer server = server();
+        server.addListener("lfp", "default", changes::add);
+
+        server.refreshAll();
+        // touched but identical content
+        write("lfp-default.properties", "a=1\n", 2);
+        server.refreshAll();
+
+        assertThat(server.getVersion()).isEqualTo(1);
+        assertThat(changes).isEmpty();
+    }
+
+    @Test
+    void deletingAFileRemovesItsScope() throws IOException {
+        write("lfp-default.properties", "a=1\n", 1);
+        ConfigServer server = server();
+        server.addListener("lfp", "default", changes::add);
+
+        Files.delete(directory.resolve("lfp-default.properties"));
+        server.refreshAll();
+
+        assertThat(server.getConfiguration("lfp", "default")).isEmpty();
+        assertThat(changes).singleElement().satisfies(change -> {
+            assertThat(change.changedKeys()).containsExactly("a");
+            assertThat(change.current()).isEmpty();
+        });
+    }
+
+    @Test
+    void inMemoryUpdatesAreVersionedAndReadersKeepTheirSnapshot() {
+        ConfigServer server = new ConfigServer();
+        server.addListener("lfp", "default", changes::add);
+
+        server.updateConfiguration("lfp", "default", Map.of("a", "1"));
+        Map<String, String> before = server.getConfiguration("lfp", "default");
+        server.updateConfiguration("lfp", "default", Map.of("a", "2"));
+        server.updateConfiguration("lfp", "default", Map.of("a", "2"));
+
+        assertThat(before).containsEntry("a", "1");
+        assertThat(server.getProperty("lfp", "default", "a")).isEqualTo("2");
+        assertThat(server.getVersion()).isEqualTo(2);
+        assertThat(changes).extracting(ConfigChange::version).containsExactly(1L, 2L);
+    }
+
+    private ConfigServer server() {
+        return new ConfigServer(directory, new SimpleMeterRegistry());
+    }
+
+    // explicit timestamps so a rewrite within the file system's timestamp granularity is still seen
+    private void write(String name, String content, long second) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(1_700_000_000 + second)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.zanta.lfp.cloud.discovery;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zanta.lfp.cloud.registry.ServiceRegistry;
+import com.zanta.lfp.cloud.registry.ServiceRegistry.ServiceInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceDiscoveryTests {
+
+    private final ServiceRegistry registry = new ServiceRegistry();
+    private final AtomicInteger healthStatus = new AtomicInteger(200);
+    private HttpServer healthy;
+    private HttpServer flaky;
+    private ServiceDiscovery discovery;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        healthy = healthServer(() -> 200);
+        flaky = healthServer(healthStatus::get);
+        discovery = new ServiceDiscovery(registry, "/actuator/health", Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        discovery.shutdown();
+        healthy.stop(0);
+        flaky.stop(0);
+    }
+
+    @Test
+    void lookupsServeTheCachedListUntilTheRegistryChanges() {
+        discovery.registerService("posts", "posts-1", "127.0.0.1", healthy.getAddress().getPort());
+
+        List<String> first = discovery.discoverService("posts");
+        assertThat(first).containsExactly("http://127.0.0.1:" + healthy.getAddress().getPort());
+        assertThat(discovery.discoverService("posts")).isSameAs(first);
+
+        discovery.registerService("posts", "posts-2", "127.0.0.1", flaky.getAddress().getPort());
+        assertThat(discovery.discoverService("posts")).hasSize(2);
+
+        registry.markDown("posts", "posts-1");
+        assertThat(discovery.discoverService("posts")).containsExactly("http://127.0.0.1:" + flaky.getAddress().getPort());
+        assertThat(discovery.getServiceHealth("posts", "posts-1")).isEqualTo("DOWN");
+
+        discovery.deregisterService("posts", "posts-2");
+        assertThat(discovery.discoverService("posts")).isEmpty();
+        assertThat(discovery.discoverService("games")).isEmpty();
+    }
+
+    @Test
+    void failedProbesTakeInstancesOutUntilTheyRecover() {
+        List<String> changes = new ArrayList<>();
+        discovery.addHealthListener((instance, health) -> changes.add(instance.getInstanceId() + "=" + health));
+        discovery.registerService("posts", "posts-1", "127.0.0.1", healthy.getAddress().getPort());
+        discovery.registerService("posts", "posts-2", "127.0.0.1", flaky.getAddress().getPort());
+        assertThat(discovery.getServiceHealth("posts", "posts-2")).isEqualTo("UNKNOWN");
+
+        healthStatus.set(503);
+        discovery.probeAll();
+        assertThat(discovery.getServiceHealth("posts", "posts-1")).isEqualTo("UP");
+        assertThat(discovery.getServiceHealth("posts", "posts-2")).isEqualTo("DOWN");
+        assertThat(discovery.discoverInstances("posts")).extracting(ServiceInstance::getInstanceId).containsExactly("posts-1");
+
+        healthStatus.set(200);
+        discovery.probeAll();
+        assertThat(discovery.discoverService("posts")).hasSize(2);
+        assertThat(changes).containsExactly("posts-2=DOWN", "posts-2=UP");
+    }
+
+    @Test
+    void allInstancesFailingProbesAreStillReturned() {
+        discovery.registerService("posts", "posts-2", "127.0.0.1", flaky.getAddress().getPort());
+        String url = "http://127.0.0.1:" + flaky.getAddress().getPort();
+        flaky.stop(0);
+
+        discovery.probeAll();
+
+        assertThat(discovery.getServiceHealth("posts", "posts-2")).isEqualTo("DOWN");
+        assertThat(discovery.discoverService("posts")).containsExactly(url);
+    }
+
+    private static HttpServer healthServer(IntSupplier status) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/actuator/health", exchange -> {
+            exchange.sendResponseHeaders(status.getAsInt(), -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,163 @@
+package com.zanta.lfp.cloud.gateway;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreaker;
+import com.zanta.lfp.cloud.circuitbreaker.CircuitBreakerRegistry;
+import com.zanta.lfp.cloud.gateway.ApiGateway.GatewayException;
+import com.zanta.lfp.cloud.gateway.ApiGateway.GatewayRequest;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter;
+import com.zanta.lfp.cloud.tracing.DistributedTracing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ApiGatewayTests {
+
+    private static final String TOKEN = "valid-token";
+
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private final LoadBalancer loadBalancer = new LoadBalancer();
+    private final DistributedTracing tracing = new DistributedTracing();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer upstream;
+    private ApiGateway gateway;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        upstream.createContext("/", exchange -> {
+            received.put("uri", exchange.getRequestURI().toString());
+            received.put("method", exchange.getRequestMethod());
+            received.put("body", new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            received.put("traceparent", String.valueOf(exchange.getRequestHeaders().getFirst("traceparent")));
+            received.put("forwarded", String.valueOf(exchange.getRequestHeaders().getFirst("X-Forwarded-For")));
+            received.put("connection-token", String.valueOf(exchange.getRequestHeaders().getFirst("Proxy-Connection")));
+            int status = exchange.getRequestURI().getPath().equals("/fail") ? 500 : 200;
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        upstream.start();
+        loadBalancer.updateInstances("posts", List.of("http://127.0.0.1:" + upstream.getAddress().getPort()));
+
+        CircuitBreaker.Config breakerConfig = new CircuitBreaker.Config(4, 4, 50, 100,
+                Duration.ofSeconds(10), Duration.ofMinutes(1), 1, ex -> true);
+        ApiGateway.Config config = new ApiGateway.Config(Duration.ofSeconds(1), Duration.ofSeconds(5),
+                RateLimiter.Budget.tokenBucket(5, Duration.ofMinutes(1)));
+        gateway = new ApiGateway(loadBalancer, new RateLimiter(), new CircuitBreakerRegistry(breakerConfig, meterRegistry),
+                tracing, token -> {
+                    if (!token.equals(TOKEN)) {
+                        throw new IllegalArgumentException("bad signature");
+                    }
+                    return "alice";
+                }, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+        upstream.stop(0);
+    }
+
+    @Test
+    void proxiesMethodPathQueryAndBodyToAnInstance() throws IOException {
+        byte[] body = "{\"title\":\"duo queue\"}".getBytes(StandardCharsets.UTF_8);
+        GatewayRequest request = new GatewayRequest("POST", "/api/v1/posts?draft=true",
+                Map.of("Authorization", List.of("Bearer " + TOKEN), "Proxy-Connection", List.of("keep-alive")),
+                "10.0.0.7", body.length, () -> new ByteArrayInputStream(body));
+
+        HttpResponse<InputStream> response = gateway.routeRequest("posts", request).join();
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(new String(response.body().readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"ok\":true}");
+        assertThat(received).containsEntry("method", "POST")
+                .containsEntry("uri", "/api/v1/posts?draft=true")
+                .containsEntry("body", "{\"title\":\"duo queue\"}")
+                .containsEntry("forwarded", "10.0.0.7")
+                .containsEntry("connection-token", "null");
+        assertThat(loadBalancer.instances("posts").get(0).inFlight()).isZero();
+    }
+
+    @Test
+    void propagatesTheCurrentTrace() {
+        DistributedTracing.Span root = tracing.startTrace("GET /gateway/posts/feed", null);
+        try {
+            gateway.routeRequest("posts", get("/feed", "Bearer " + TOKEN)).join();
+        } finally {
+            tracing.end(root);
+        }
+
+        assertThat(received.get("traceparent")).startsWith("00-" + root.getTraceId() + "-" + root.getSpanId());
+    }
+
+    @Test
+    void rejectsMissingOrInvalidTokensBeforeCallingUpstream() {
+        assertThatThrownBy(() -> gateway.routeRequest("posts", get("/feed", null)))
+                .isInstanceOfSatisfying(GatewayException.class, ex -> assertThat(ex.getStatus()).isEqualTo(401));
+        assertThatThrownBy(() -> gateway.routeRequest("posts", get("/feed", "Bearer forged")))
+                .isInstanceOfSatisfying(GatewayException.class, ex -> assertThat(ex.getStatus()).isEqualTo(401));
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void rateLimitsEachUser() {
+        for (int i = 0; i < 5; i++) {
+            gateway.routeRequest("posts", get("/feed", "Bearer " + TOKEN)).join();
+        }
+
+        assertThatThrownBy(() -> gateway.routeRequest("posts", get("/feed", "Bearer " + TOKEN)))
+                .isInstanceOfSatisfying(GatewayException.class, ex -> {
+                    assertThat(ex.getStatus()).isEqualTo(429);
+                    assertThat(ex.getRetryAfterSeconds()).isPositive();
+                });
+    }
+
+    @Test
+    void upstreamErrorsOpenTheServiceCircuit() {
+        for (int i = 0; i < 4; i++) {
+            assertThat(gateway.routeRequest("posts", get("/fail", "Bearer " + TOKEN)).join().statusCode()).isEqualTo(500);
+        }
+
+        assertThatThrownBy(() -> gateway.routeRequest("posts", get("/feed", "Bearer " + TOKEN)))
+                .isInstanceOfSatisfying(GatewayException.class, ex -> assertThat(ex.getStatus()).isEqualTo(503));
+    }
+
+    @Test
+    void unknownServicesAndUnreachableInstancesAreGatewayErrors() {
+        assertThatThrownBy(() -> gateway.routeRequest("games", get("/", "Bearer " + TOKEN)))
+                .isInstanceOfSatisfying(GatewayException.class, ex -> assertThat(ex.getStatus()).isEqualTo(404));
+        assertThat(meterRegistry.find("lfp.circuit-breaker.state").tag("name", "gateway-games").meters()).isEmpty();
+
+        upstream.stop(0);
+        assertThatThrownBy(() -> gateway.routeRequest("posts", get("/feed", "Bearer " + TOKEN)).join())
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(GatewayException.class, ex -> assertThat(ex.getStatus()).isEqualTo(502));
+    }
+
+    private static GatewayRequest get(String pathAndQuery, String authorization) {
+        Map<String, List<String>> headers = authorization == null ? Map.of() : Map.of("Authorization", List.of(authorization));
+        return new GatewayRequest("GET", pathAndQuery, headers, "127.0.0.1", -1, InputStream::nullInputStream);
+    }
+}
@@ -0,0 +1,159 @@
+package com.zanta.lfp.cloud.loadbalancer;
+
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer.Instance;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer.LoadBalancingStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadBalancerTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void smoothWeightedRoundRobinInterleavesHeavyInstances() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.WEIGHTED_ROUND_ROBIN);
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("a", 5);
+        weights.put("b", 1);
+        weights.put("c", 1);
+        balancer.updateWeightedInstances("svc", weights);
+
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            picks.add(selectAndRelease(balancer, "svc", 1_000));
+        }
+
+        assertThat(picks).containsExactly("a", "a", "b", "a", "c", "a", "a", "a", "a", "b", "a", "c", "a", "a");
+    }
+
+    @Test
+    void leastConnectionsAvoidsBusyInstances() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.LEAST_CONNECTIONS);
+        balancer.updateInstances("svc", List.of("a", "b", "c"));
+
+        Instance first = balancer.select("svc");
+        Instance second = balancer.select("svc");
+        Instance third = balancer.select("svc");
+        assertThat(List.of(first.url(), second.url(), third.url())).containsExactlyInAnyOrder("a", "b", "c");
+
+        balancer.release(second, 1_000, true);
+        assertThat(balancer.select("svc")).isSameAs(second);
+    }
+
+    @Test
+    void powerOfTwoChoicesShiftsTrafficAwayFromSlowInstances() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+        balancer.updateInstances("svc", List.of("fast-1", "fast-2", "slow"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            Instance instance = balancer.select("svc");
+            long latency = instance.url().equals("slow") ? 50_000_000 : 1_000_000;
+            balancer.release(instance, latency, true);
+            counts.merge(instance.url(), 1, Integer::sum);
+        }
+
+        // once measured, the slow instance loses every draw against a fast one
+        assertThat(counts.getOrDefault("slow", 0)).isLessThan(100);
+    }
+
+    @Test
+    void unhealthyInstancesAreSkippedUntilTheCooldownEnds() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.ROUND_ROBIN);
+        balancer.updateInstances("svc", List.of("a", "b"));
+        balancer.markUnhealthy("a");
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(selectAndRelease(balancer, "svc", 1_000)).isEqualTo("b");
+        }
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            picks.add(selectAndRelease(balancer, "svc", 1_000));
+        }
+        assertThat(picks).contains("a", "b");
+    }
+
+    @Test
+    void instancesDownStaySkippedUntilMarkedHealthy() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.ROUND_ROBIN);
+        balancer.updateInstances("svc", List.of("a", "b"));
+        balancer.markDown("a");
+        balancer.markUnhealthy("a");
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        for (int i = 0; i < 10; i++) {
+            assertThat(selectAndRelease(balancer, "svc", 1_000)).isEqualTo("b");
+        }
+
+        balancer.markHealthy("a");
+        List<String> picks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            picks.add(selectAndRelease(balancer, "svc", 1_000));
+        }
+        assertThat(picks).contains("a", "b");
+    }
+
+    @Test
+    void repeatedFailuresMarkAnInstanceUnhealthy() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.ROUND_ROBIN);
+        balancer.updateInstances("svc", List.of("a", "b"));
+
+        int failures = 0;
+        while (failures < 3) {
+            Instance instance = balancer.select("svc");
+            boolean isA = instance.url().equals("a");
+            balancer.release(instance, 1_000, !isA);
+            if (isA) {
+                failures++;
+            }
+        }
+
+        for (int i = 0; i < 6; i++) {
+            assertThat(selectAndRelease(balancer, "svc", 1_000)).isEqualTo("b");
+        }
+    }
+
+    @Test
+    void failsOpenWhenEveryInstanceIsUnhealthy() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.POWER_OF_TWO_CHOICES);
+        balancer.updateInstances("svc", List.of("a", "b"));
+        balancer.markUnhealthy("a");
+        balancer.markUnhealthy("b");
+
+        assertThat(selectAndRelease(balancer, "svc", 1_000)).isIn("a", "b");
+    }
+
+    @Test
+    void updatingThePoolKeepsInstanceStatistics() {
+        LoadBalancer balancer = balancer(LoadBalancingStrategy.ROUND_ROBIN);
+        balancer.updateInstances("svc", List.of("a"));
+        Instance a = balancer.select("svc");
+
+        balancer.updateInstances("svc", List.of("a", "b"));
+
+        assertThat(balancer.instances("svc").get(0)).isSameAs(a);
+        assertThat(a.inFlight()).isEqualTo(1);
+        assertThat(balancer.select("missing")).isNull();
+    }
+
+    private LoadBalancer balancer(LoadBalancingStrategy strategy) {
+        return new LoadBalancer(strategy, Duration.ofSeconds(30), clock::get);
+    }
+
+    private static String selectAndRelease(LoadBalancer balancer, String service, long latencyNanos) {
+        Instance instance = balancer.select(service);
+        balancer.release(instance, latencyNanos, true);
+        return instance.url();
+    }
+}
@@ -0,0 +1,132 @@
+package com.zanta.lfp.cloud.messaging;
+
+import com.zanta.lfp.cloud.messaging.MessageQueue.Backpressure;
+import com.zanta.lfp.cloud.messaging.MessageQueue.Message;
+import com.zanta.lfp.cloud.messaging.MessageQueue.TopicConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageQueueTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageQueue messageQueue = new MessageQueue(TopicConfig.defaults(), meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        messageQueue.shutdown();
+    }
+
+    @Test
+    void everySubscriberReceivesEveryMessageInOrder() throws Exception {
+        List<Object> first = new CopyOnWriteArrayList<>();
+        List<Object> second = new CopyOnWriteArrayList<>();
+        CountDownLatch received = new CountDownLatch(200);
+        messageQueue.subscribe("posts", message -> {
+            first.add(message.getPayload());
+            received.countDown();
+        });
+        messageQueue.subscribeBatch("posts", batch -> {
+            batch.forEach(message -> second.add(message.getPayload()));
+            batch.forEach(message -> received.countDown());
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(messageQueue.publish("posts", i)).isTrue();
+        }
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(first).containsExactlyElementsOf(second).hasSize(100).startsWith(0, 1, 2);
+        assertThat(meterRegistry.counter("lfp.messaging.published", "topic", "posts").count()).isEqualTo(100);
+    }
+
+    @Test
+    void concurrentPublishersLoseNothingWhenBlocking() throws Exception {
+        messageQueue.declareTopic("events", new TopicConfig(64, 16, Backpressure.BLOCK, Duration.ofSeconds(10)));
+        ConcurrentLinkedQueue<Object> received = new ConcurrentLinkedQueue<>();
+        CountDownLatch done = new CountDownLatch(8 * 5_000);
+        messageQueue.subscribeBatch("events", batch -> batch.forEach(message -> {
+            received.add(message.getPayload());
+            done.countDown();
+        }));
+
+        ExecutorService publishers = Executors.newFixedThreadPool(8);
+        for (int p = 0; p < 8; p++) {
+            int publisher = p;
+            publishers.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    messageQueue.publish("events", publisher * 5_000 + i);
+                }
+            });
+        }
+        publishers.shutdown();
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(40_000).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void fullRingsDropOrFailDependingOnTheTopic() throws Exception {
+        messageQueue.declareTopic("drop", new TopicConfig(2, 1, Backpressure.DROP, Duration.ZERO));
+        messageQueue.declareTopic("fail", new TopicConfig(2, 1, Backpressure.FAIL, Duration.ZERO));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handling = new CountDownLatch(2);
+        MessageQueue.MessageHandler stuck = message -> {
+            handling.countDown();
+            awaitQuietly(release);
+        };
+        messageQueue.subscribe("drop", stuck);
+        messageQueue.subscribe("fail", stuck);
+
+        // the first message is taken by the stuck handler, the next two fill the ring
+        messageQueue.publish("drop", 0);
+        messageQueue.publish("fail", 0);
+        assertThat(handling.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 2; i++) {
+            assertThat(messageQueue.publish("drop", i)).isTrue();
+            assertThat(messageQueue.publish("fail", i)).isTrue();
+        }
+
+        assertThat(messageQueue.publish("drop", 3)).isFalse();
+        assertThatThrownBy(() -> messageQueue.publish("fail", 3))
+                .isInstanceOf(MessageQueue.MessageQueueFullException.class);
+        assertThat(messageQueue.lag("drop")).isEqualTo(2);
+        assertThat(meterRegistry.counter("lfp.messaging.dropped", "topic", "drop").count()).isEqualTo(1);
+
+        release.countDown();
+    }
+
+    @Test
+    void shutdownDeliversWhatIsAlreadyQueued() {
+        List<Message> received = new CopyOnWriteArrayList<>();
+        messageQueue.subscribe("posts", received::add);
+        for (int i = 0; i < 1_000; i++) {
+            messageQueue.publish("posts", i);
+        }
+
+        messageQueue.shutdown();
+
+        assertThat(received).hasSize(1_000);
+        assertThat(messageQueue.publish("posts", "late")).isFalse();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.zanta.lfp.cloud.ratelimit;
+
+import com.zanta.lfp.cloud.ratelimit.RateLimiter.Budget;
+import com.zanta.lfp.cloud.ratelimit.RateLimiter.Decision;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+
+    private static final int THREADS = 64;
+    private static final int ATTEMPTS_PER_THREAD = 500;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final RateLimiter rateLimiter = new RateLimiter(Duration.ofMinutes(10), clock::get);
+
+    @ParameterizedTest
+    @EnumSource(RateLimiter.Mode.class)
+    void concurrentCallersNeverExceedTheBudget(RateLimiter.Mode mode) throws Exception {
+        Budget budget = new Budget(mode, 100, Duration.ofMinutes(1));
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        if (rateLimiter.tryAcquire("client", budget).allowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed.get()).isEqualTo(100);
+        assertThat(rateLimiter.getRemainingRequests("client")).isZero();
+    }
+
+    @Test
+    void tokenBucketRefillsAtTheBudgetRate() {
+        Budget budget = Budget.tokenBucket(60, Duration.ofMinutes(1));
+        for (int i = 0; i < 60; i++) {
+            assertThat(rateLimiter.tryAcquire("client", budget).allowed()).isTrue();
+        }
+
+        Decision denied = rateLimiter.tryAcquire("client", budget);
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterSeconds()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(1));
+        assertThat(rateLimiter.tryAcquire("client", budget).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("client", budget).allowed()).isFalse();
+
+        advance(Duration.ofMinutes(1));
+        assertThat(rateLimiter.getRemainingRequests("client")).isEqualTo(60);
+    }
+
+    @Test
+    void slidingWindowAdmitsAgainOnlyWhenTheOldestRequestLeavesTheWindow() {
+        Budget budget = Budget.slidingWindow(3, Duration.ofSeconds(10));
+        rateLimiter.tryAcquire("client", budget);
+        advance(Duration.ofSeconds(4));
+        rateLimiter.tryAcquire("client", budget);
+        rateLimiter.tryAcquire("client", budget);
+
+        Decision denied = rateLimiter.tryAcquire("client", budget);
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfterSeconds()).isEqualTo(6);
+
+        advance(Duration.ofSeconds(6));
+        assertThat(rateLimiter.tryAcquire("client", budget).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("client", budget).allowed()).isFalse();
+    }
+
+    @Test
+    void keysAreLimitedIndependently() {
+        Budget budget = Budget.tokenBucket(1, Duration.ofMinutes(1));
+
+        assertThat(rateLimiter.tryAcquire("first", budget).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire("first", budget).allowed()).isFalse();
+        assertThat(rateLimiter.tryAcquire("second", budget).allowed()).isTrue();
+    }
+
+    @Test
+    void evictsOnlyClientsThatRecoveredAndStayedIdle() {
+        Budget budget = Budget.tokenBucket(10, Duration.ofMinutes(1));
+        rateLimiter.tryAcquire("idle", budget);
+        advance(Duration.ofMinutes(5));
+        rateLimiter.tryAcquire("active", budget);
+
+        advance(Duration.ofMinutes(6));
+        rateLimiter.evictIdle();
+        assertThat(rateLimiter.size()).isEqualTo(1);
+
+        advance(Duration.ofMinutes(5));
+        rateLimiter.evictIdle();
+        assertThat(rateLimiter.size()).isZero();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,117 @@
+package com.zanta.lfp.cloud.registry;
+
+import com.zanta.lfp.cloud.registry.ServiceRegistry.ServiceInstance;
+import com.zanta.lfp.cloud.registry.ServiceRegistry.Status;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServiceRegistryTests {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ServiceRegistry registry =
+            new ServiceRegistry(Duration.ofSeconds(15), Duration.ofSeconds(60), clock::get);
+
+    @Test
+    void concurrentRegistrationsAndDeregistrationsKeepEverySurvivor() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 16; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    String id = thread + "-" + i;
+                    registry.register(new ServiceInstance(id, "posts", "10.0." + thread + "." + i, 8080));
+                    if (i % 2 == 1) {
+                        registry.deregister("posts", id);
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(registry.getInstances("posts")).hasSize(16 * 100)
+                .allMatch(instance -> Integer.parseInt(instance.getInstanceId().split("-")[1]) % 2 == 0);
+    }
+
+    @Test
+    void sweeperMarksSilentInstancesDownThenEvictsThem() {
+        registry.register(new ServiceInstance("a", "posts", "10.0.0.1", 8080));
+        registry.register(new ServiceInstance("b", "posts", "10.0.0.2", 8080));
+
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        registry.receiveHeartbeat("posts", "b");
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        registry.sweep();
+
+        assertThat(registry.getInstances("posts")).extracting(ServiceInstance::getInstanceId).containsExactly("b");
+        assertThat(registry.getAllInstances("posts")).extracting(ServiceInstance::getStatus)
+                .containsExactly(Status.DOWN, Status.UP);
+
+        clock.addAndGet(Duration.ofSeconds(45).toNanos());
+        registry.receiveHeartbeat("posts", "b");
+        registry.sweep();
+
+        assertThat(registry.getAllInstances("posts")).extracting(ServiceInstance::getInstanceId).containsExactly("b");
+        assertThat(registry.receiveHeartbeat("posts", "a")).isFalse();
+    }
+
+    @Test
+    void heartbeatBringsADownInstanceBackUp() {
+        registry.register(new ServiceInstance("a", "posts", "10.0.0.1", 8080));
+        registry.markDown("posts", "a");
+        assertThat(registry.getInstances("posts")).isEmpty();
+
+        assertThat(registry.receiveHeartbeat("posts", "a")).isTrue();
+
+        assertThat(registry.getInstances("posts")).extracting(ServiceInstance::getStatus).containsExactly(Status.UP);
+    }
+
+    @Test
+    void listenersSeeEveryMembershipChange() {
+        AtomicReference<List<String>> latest = new AtomicReference<>(List.of());
+        List<String> changes = new ArrayList<>();
+        registry.addListener((service, instances) -> {
+            changes.add(service);
+            latest.set(instances.stream().map(ServiceInstance::getUrl).toList());
+        });
+
+        registry.register(new ServiceInstance("a", "posts", "10.0.0.1", 8080));
+        registry.register(new ServiceInstance("b", "posts", "10.0.0.2", 8080));
+        registry.markDown("posts", "a");
+        registry.receiveHeartbeat("posts", "b");
+
+        assertThat(changes).hasSize(3);
+        assertThat(latest.get()).containsExactly("http://10.0.0.2:8080");
+
+        registry.deregister("posts", "b");
+        assertThat(latest.get()).isEmpty();
+    }
+
+    @Test
+    void readsReturnTheSameSnapshotUntilMembershipChanges() {
+        registry.register(new ServiceInstance("a", "posts", "10.0.0.1", 8080));
+        List<ServiceInstance> first = registry.getInstances("posts");
+
+        registry.receiveHeartbeat("posts", "a");
+        assertThat(registry.getInstances("posts")).isSameAs(first);
+
+        registry.register(new ServiceInstance("b", "posts", "10.0.0.2", 8080));
+        assertThat(registry.getInstances("posts")).isNotSameAs(first).hasSize(2);
+        assertThat(first).hasSize(1);
+    }
+}
@@ -0,0 +1,164 @@
+package com.zanta.lfp.cloud.tracing;
+
+import com.zanta.lfp.cloud.tracing.DistributedTracing.Span;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DistributedTracingTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String SAMPLED = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final String NOT_SAMPLED = "00-" + TRACE_ID + "-00f067aa0ba902b7-00";
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final List<Span> exported = new CopyOnWriteArrayList<>();
+
+    @Test
+    void continuesAnIncomingTraceparentAndPropagatesItsOwnSpan() {
+        DistributedTracing tracing = tracing(0, 64);
+
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", SAMPLED);
+        String outgoing = tracing.traceparent(root);
+        tracing.end(root);
+
+        assertThat(root.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(root.getParentSpanId()).isEqualTo("00f067aa0ba902b7");
+        assertThat(outgoing).matches("00-" + TRACE_ID + "-[0-9a-f]{16}-01")
+                .doesNotContain("00f067aa0ba902b7");
+    }
+
+    @Test
+    void untrustedCallersCannotForceSampling() {
+        DistributedTracing tracing = tracing(0, 64);
+
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", SAMPLED, false);
+        tracing.end(root);
+        tracing.flush();
+
+        assertThat(root.getTraceId()).isEqualTo(TRACE_ID);
+        assertThat(root.isSampled()).isFalse();
+        assertThat(exported).isEmpty();
+    }
+
+    @Test
+    void malformedTraceparentStartsANewTrace() {
+        DistributedTracing tracing = tracing(0, 64);
+
+        for (String header : List.of("garbage", "00-" + TRACE_ID.toUpperCase() + "-00f067aa0ba902b7-01",
+                "00-00000000000000000000000000000000-00f067aa0ba902b7-01")) {
+            Span root = tracing.startTrace("GET /", header);
+            tracing.end(root);
+            assertThat(root.getTraceId()).isNotEqualTo(TRACE_ID).hasSize(32);
+            assertThat(root.getParentSpanId()).isNull();
+        }
+    }
+
+    @Test
+    void childSpansNestUnderTheCurrentSpanAndRestoreIt() {
+        DistributedTracing tracing = tracing(0, 64);
+        assertThat(tracing.startSpan("PostService.getFeed")).isNull();
+
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", SAMPLED);
+        Span service = tracing.startSpan("PostService.getFeed");
+        Span repository = tracing.startSpan("PostRepository.findFeedPageIds");
+        tracing.end(repository);
+        assertThat(tracing.currentSpan()).isSameAs(service);
+        tracing.end(service);
+        tracing.end(root);
+
+        assertThat(tracing.currentSpan()).isNull();
+        assertThat(repository.getParentSpanId()).isEqualTo(service.getSpanId());
+        assertThat(service.getParentSpanId()).isEqualTo(root.getSpanId());
+        tracing.flush();
+        assertThat(exported).containsExactly(repository, service, root);
+    }
+
+    @Test
+    void unsampledTracesAreExportedOnlyWhenSlowOrFailed() {
+        DistributedTracing tracing = tracing(0, 64);
+
+        traceTaking(tracing, Duration.ofMillis(10), false);
+        traceTaking(tracing, Duration.ofMillis(600), false);
+        traceTaking(tracing, Duration.ofMillis(10), true);
+        tracing.flush();
+
+        assertThat(exported).hasSize(4);
+        assertThat(exported).filteredOn(Span::isError).hasSize(1);
+        assertThat(exported).extracting(Span::getDuration).contains(600L);
+    }
+
+    @Test
+    void fullBufferDropsSpansInsteadOfBlocking() {
+        DistributedTracing tracing = tracing(1, 4);
+
+        for (int i = 0; i < 10; i++) {
+            tracing.end(tracing.startTrace("GET /", null));
+        }
+        tracing.flush();
+
+        assertThat(exported).hasSize(4);
+        assertThat(tracing.getDroppedSpans()).isEqualTo(6);
+        assertThat(tracing.getExportedSpans()).isEqualTo(4);
+    }
+
+    @Test
+    void exporterWritesOneJsonObjectPerSpan() {
+        DistributedTracing tracing = tracing(0, 64);
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", SAMPLED);
+        tracing.addTag(root, "query", "rank=\"Gold\"");
+        tracing.end(root);
+
+        StringBuilder json = new StringBuilder();
+        FileSpanExporter.appendSpan(json, root);
+
+        assertThat(json.toString())
+                .startsWith("{\"traceId\":\"" + TRACE_ID + "\"")
+                .contains("\"parentId\":\"00f067aa0ba902b7\"")
+                .contains("\"tags\":{\"query\":\"rank=\\\"Gold\\\"\"}")
+                .endsWith("}\n");
+    }
+
+    @Test
+    void exporterRotatesTheFileOnceItIsFull(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("spans.jsonl");
+        FileSpanExporter exporter = new FileSpanExporter(file, 1);
+        DistributedTracing tracing = new DistributedTracing(new DistributedTracing.Config(
+                "lfp", 1, Duration.ofMillis(500), 64, 16), exporter, new SimpleMeterRegistry(), clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            tracing.end(tracing.startTrace("GET /" + i, null));
+            tracing.flush();
+        }
+
+        assertThat(Files.readAllLines(file)).singleElement().asString().contains("\"name\":\"GET /2\"");
+        assertThat(Files.readAllLines(dir.resolve("spans.jsonl.1"))).singleElement().asString()
+                .contains("\"name\":\"GET /1\"");
+    }
+
+    private void traceTaking(DistributedTracing tracing, Duration duration, boolean fail) {
+        Span root = tracing.startTrace("GET /api/v1/posts/feed", NOT_SAMPLED);
+        Span child = tracing.startSpan("PostService.getFeed");
+        clock.addAndGet(duration.toNanos());
+        if (fail) {
+            tracing.error(child, new IllegalStateException("database down"));
+        }
+        tracing.end(child);
+        tracing.end(root);
+    }
+
+    private DistributedTracing tracing(double headSampleRate, int bufferCapacity) {
+        DistributedTracing.Config config = new DistributedTracing.Config(
+                "lfp", headSampleRate, Duration.ofMillis(500), bufferCapacity, 16);
+        return new DistributedTracing(config, exported::addAll, new SimpleMeterRegistry(), clock::get);
+    }
+}
@@ -0,0 +1,59 @@
+package com.zanta.lfp.config;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import com.zanta.lfp.user.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PrincipalCacheTests {
+
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void principalsAreDroppedOnlyOnceTheChangeCommits() {
+        String username = "principal-" + UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(TestFixtures.user(username));
+        principalCache.get(username, loader());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.createAdminUser(user.getId());
+            // a request arriving before the commit still sees the cached principal and caches nothing new
+            principalCache.get(username, loader());
+            assertThat(loads.get()).isEqualTo(1);
+        });
+
+        assertThat(principalCache.get(username, loader()).getAuthorities())
+                .extracting(Object::toString)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private UserDetailsService loader() {
+        return username -> {
+            loads.incrementAndGet();
+            return userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException(username));
+        };
+    }
+}
@@ -0,0 +1,28 @@
+package com.zanta.lfp.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * Every test context has its own database, so it also gets its own second-level cache manager. The manager is
+ * configured from application.conf like the application's, so the regions exist up front and hold entries by
+ * reference; regions Hibernate creates on demand would default to JCache's store-by-value and serialize on every
+ * access. Hibernate closes the manager with the context.
+ */
+@Configuration
+class SecondLevelCacheTestConfiguration {
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheManager() {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER,
+                Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                        .getCacheManager(URI.create("lfp-test-" + UUID.randomUUID()), getClass().getClassLoader()));
+    }
+}
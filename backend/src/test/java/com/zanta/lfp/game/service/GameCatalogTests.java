@@ -0,0 +1,110 @@
+package com.zanta.lfp.game.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.config.JwtService;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GameCatalogTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Statistics statistics;
+    private String token;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        run = UUID.randomUUID().toString().substring(0, 8);
+        User user = userRepository.save(TestFixtures.user("catalog-" + run));
+        token = jwtService.generateToken(user);
+    }
+
+    @Test
+    void catalogIsServedFromMemoryAndRevalidatedWithItsETag() throws Exception {
+        gameService.addGame(game("Valorant"));
+
+        HttpResponse<String> first = get("/api/v1/games/all", null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(first.body()).contains("\"name\":\"" + run + "-Valorant\"");
+        assertThat(first.headers().firstValue("Cache-Control")).hasValue("max-age=60, private");
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+
+        statistics.clear();
+        HttpResponse<String> again = get("/api/v1/games/all", null);
+        HttpResponse<String> notModified = get("/api/v1/games/all", etag);
+        HttpResponse<String> byName = get("/api/v1/games/" + run + "-valorant", null);
+
+        assertThat(again.body()).isEqualTo(first.body());
+        assertThat(again.headers().firstValue("ETag")).hasValue(etag);
+        assertThat(notModified.statusCode()).isEqualTo(304);
+        assertThat(notModified.body()).isEmpty();
+        assertThat(byName.statusCode()).isEqualTo(200);
+        assertThat(byName.body()).startsWith("{\"game\":");
+        // the JWT filter's principal was cached by the first request, so nothing reaches the database
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(get("/api/v1/games/" + run + "-unknown", null).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void addingAndDeletingGamesChangesTheCatalog() throws Exception {
+        gameService.addGame(game("Apex"));
+        HttpResponse<String> before = get("/api/v1/games/all", null);
+        String etag = before.headers().firstValue("ETag").orElseThrow();
+
+        gameService.addGame(game("Dota"));
+        HttpResponse<String> added = get("/api/v1/games/all", etag);
+        assertThat(added.statusCode()).isEqualTo(200);
+        assertThat(added.body()).contains(run + "-Dota");
+        assertThat(added.headers().firstValue("ETag")).isNotEqualTo(etag);
+
+        gameService.deleteGame(run + "-Dota");
+        assertThat(get("/api/v1/games/" + run + "-Dota", null).statusCode()).isEqualTo(404);
+        assertThat(get("/api/v1/games/all", etag).statusCode()).isEqualTo(304);
+    }
+
+    private Game game(String name) {
+        return TestFixtures.game(run + "-" + name);
+    }
+
+    private HttpResponse<String> get(String path, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET();
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,103 @@
+package com.zanta.lfp.gateway.controller;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.cloud.loadbalancer.LoadBalancer;
+import com.zanta.lfp.config.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "lfp.gateway.enabled=true")
+class GatewayControllerTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadBalancer loadBalancer;
+    @Autowired
+    private JwtService jwtService;
+
+    private final Map<String, String> received = new ConcurrentHashMap<>();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private HttpServer upstream;
+    private String token;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        upstream.createContext("/", exchange -> {
+            received.put("method", exchange.getRequestMethod());
+            received.put("uri", exchange.getRequestURI().toString());
+            received.put("body", new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            received.put("transfer-encoding", String.valueOf(exchange.getRequestHeaders().getFirst("Transfer-Encoding")));
+            received.put("content-length", String.valueOf(exchange.getRequestHeaders().getFirst("Content-Length")));
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        upstream.start();
+        loadBalancer.updateInstances("posts", List.of("http://127.0.0.1:" + upstream.getAddress().getPort()));
+        token = jwtService.generateToken(TestFixtures.user("gateway-user"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loadBalancer.removeService("posts");
+        upstream.stop(0);
+    }
+
+    @Test
+    void proxiesABodilessGetWithoutABody() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(gatewayUri("/api/v1/posts/feed?gameId=1")).GET());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).isEqualTo("{\"ok\":true}");
+        assertThat(received).containsEntry("method", "GET")
+                .containsEntry("uri", "/api/v1/posts/feed?gameId=1")
+                .containsEntry("body", "")
+                .containsEntry("transfer-encoding", "null")
+                .containsEntry("content-length", "null");
+    }
+
+    @Test
+    void proxiesARequestBodyWithItsLength() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(gatewayUri("/api/v1/posts"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Lobby\"}")));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(received).containsEntry("method", "POST")
+                .containsEntry("body", "{\"title\":\"Lobby\"}")
+                .containsEntry("transfer-encoding", "null")
+                .containsEntry("content-length", "17");
+    }
+
+    private URI gatewayUri(String path) {
+        return URI.create("http://localhost:" + port + "/gateway/posts" + path);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.header("Authorization", "Bearer " + token).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,270 @@
+package com.zanta.lfp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.config.JwtService;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives concurrent create / join / cancel / feed traffic through the real controllers against
+ * the embedded H2 database and reports latency percentiles, throughput and SQL statements per
+ * request for each endpoint.
+ * Scale with -Dlfp.loadtest.users, -Dlfp.loadtest.threads and -Dlfp.loadtest.requests.
+ * {@link VirtualThreadPostLifecycleLoadTests} runs the same traffic with virtual threads enabled.
+ * Tagged "load", so it only runs with {@code mvn -Ploadtest test}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Tag("load")
+@Slf4j
+class PostLifecycleLoadTests {
+
+    private static final int USERS = Integer.getInteger("lfp.loadtest.users", 200);
+    private static final int THREADS = Integer.getInteger("lfp.loadtest.threads", 32);
+    private static final int REQUESTS = Integer.getInteger("lfp.loadtest.requests", 1000);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void postLifecycleUnderConcurrentLoad() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        List<String> tokens = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = userRepository.save(TestFixtures.user("load-" + run + "-" + i));
+            tokens.add(jwtService.generateToken(user));
+        }
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            games.add(gameRepository.save(TestFixtures.game("load-" + run + "-game-" + i)));
+        }
+
+        // 1. every user opens one lobby
+        Long[] postIds = new Long[USERS];
+        EndpointStats create = runPhase("POST /posts", USERS, statistics, i -> authorized(tokens.get(i), "/api/v1/posts")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(json(Map.of(
+                                "title", "Load test lobby " + i,
+                                "teamSize", 2 + i % 4,
+                                "gameId", games.get(i % games.size()).getId(),
+                                "rank", i % 2 == 0 ? "Gold" : "Silver",
+                                "voiceChat", i % 3 == 0))))
+                        .build(),
+                (i, response) -> postIds[i] = readPostId(response));
+
+        // 2. users join other users' lobbies, full lobbies and duplicates answer 400
+        ConcurrentLinkedQueue<int[]> joins = new ConcurrentLinkedQueue<>();
+        EndpointStats join = runPhase("POST /posts/{id}/join", REQUESTS, statistics, i -> {
+                    int[] pair = joinPair(i);
+                    return authorized(tokens.get(pair[0]), "/api/v1/posts/" + postIds[pair[1]] + "/join")
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                },
+                (i, response) -> {
+                    if (response.statusCode() == 200) {
+                        joins.add(joinPair(i));
+                    }
+                });
+
+        // 3. half of the successful joins are cancelled again
+        List<int[]> accepted = new ArrayList<>(joins);
+        int cancels = accepted.size() / 2;
+        EndpointStats cancel = runPhase("POST /posts/{id}/cancel-join", cancels, statistics, i -> {
+                    int[] pair = accepted.get(i);
+                    return authorized(tokens.get(pair[0]), "/api/v1/posts/" + postIds[pair[1]] + "/cancel-join")
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                },
+                (i, response) -> { });
+
+        // 4. feed reads, full list and one filtered page
+        EndpointStats feedAll = runPhase("GET /posts/all", REQUESTS, statistics,
+                i -> authorized(tokens.get(i % USERS), "/api/v1/posts/all").GET().build(),
+                (i, response) -> { });
+        EndpointStats feedPage = runPhase("GET /posts/feed", REQUESTS, statistics,
+                i -> authorized(tokens.get(i % USERS), "/api/v1/posts/feed?size=20&openSlots=true&gameId="
+                        + games.get(i % games.size()).getId()).GET().build(),
+                (i, response) -> { });
+
+        List<EndpointStats> report = List.of(create, join, cancel, feedAll, feedPage);
+        StringBuilder table = new StringBuilder(EndpointStats.HEADER);
+        report.forEach(stats -> table.append(System.lineSeparator()).append(stats.format()));
+        log.info("Post lifecycle load, {} client threads, {} request threads:{}{}", THREADS,
+                virtualThreads ? "virtual" : "platform", System.lineSeparator(), table);
+
+        for (EndpointStats stats : report) {
+            assertThat(stats.serverErrors).as(stats.endpoint + " server errors").isZero();
+        }
+        assertThat(create.clientErrors).isZero();
+        assertThat(cancel.clientErrors).isZero();
+        // regression guards: statements per request must not grow with the number of posts
+        assertThat(feedAll.statementsPerRequest()).isLessThanOrEqualTo(3);
+        assertThat(feedPage.statementsPerRequest()).isLessThanOrEqualTo(4);
+        assertThat(join.statementsPerRequest()).isLessThanOrEqualTo(6);
+        assertThat(cancel.statementsPerRequest()).isLessThanOrEqualTo(6);
+    }
+
+    private static int[] joinPair(int i) {
+        int user = i % USERS;
+        int post = (user + 1 + (i / USERS) * 7) % USERS;
+        return new int[]{user, post};
+    }
+
+    private EndpointStats runPhase(String endpoint, int requests, Statistics statistics,
+                                   IntFunction<HttpRequest> requestFactory,
+                                   BiConsumer<Integer, HttpResponse<String>> onResponse) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger clientErrors = new AtomicInteger();
+        AtomicInteger serverErrors = new AtomicInteger();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < requests) {
+                    long sent = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = httpClient.send(requestFactory.apply(i),
+                                HttpResponse.BodyHandlers.ofString());
+                        latencies[i] = System.nanoTime() - sent;
+                        if (response.statusCode() >= 500) {
+                            serverErrors.incrementAndGet();
+                        } else if (response.statusCode() >= 400) {
+                            clientErrors.incrementAndGet();
+                        }
+                        onResponse.accept(i, response);
+                    } catch (Exception ex) {
+                        latencies[i] = System.nanoTime() - sent;
+                        serverErrors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - start;
+
+        return new EndpointStats(endpoint, latencies, elapsed, statistics.getPrepareStatementCount(),
+                clientErrors.get(), serverErrors.get());
+    }
+
+    private HttpRequest.Builder authorized(String token, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    private Long readPostId(HttpResponse<String> response) {
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            return body.path("post").path("id").asLong();
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private String json(Map<String, Object> body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static final class EndpointStats {
+        static final String HEADER = String.format("%-30s %8s %10s %9s %9s %9s %8s %8s",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "sql/req", "4xx/5xx");
+
+        final String endpoint;
+        final long[] latencies;
+        final long elapsedNanos;
+        final long statements;
+        final int clientErrors;
+        final int serverErrors;
+
+        EndpointStats(String endpoint, long[] latencies, long elapsedNanos, long statements,
+                      int clientErrors, int serverErrors) {
+            this.endpoint = endpoint;
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+            this.elapsedNanos = elapsedNanos;
+            this.statements = statements;
+            this.clientErrors = clientErrors;
+            this.serverErrors = serverErrors;
+        }
+
+        double statementsPerRequest() {
+            return latencies.length == 0 ? 0 : (double) statements / latencies.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) return 0;
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+
+        String format() {
+            double throughput = latencies.length / (elapsedNanos / 1e9);
+            return String.format("%-30s %8d %10.0f %9.2f %9.2f %9.2f %8.2f %4d/%d",
+                    endpoint, latencies.length, throughput, percentileMillis(0.50), percentileMillis(0.99),
+                    percentileMillis(1.0), statementsPerRequest(), clientErrors, serverErrors);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.zanta.lfp.loadtest;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The post lifecycle load test with requests served on virtual threads. For the platform versus
+ * virtual thread comparison run both classes with the same concurrency, above Tomcat's 200 request
+ * threads, e.g. {@code mvn -Ploadtest test -Dlfp.loadtest.threads=400 -Dlfp.loadtest.requests=2000},
+ * and compare the join and feed rows of the two logged reports. Past Tomcat's pool, platform threads
+ * queue requests in the connector and the slow calls open the post-feed breaker; virtual threads
+ * queue them on the Hikari pool instead. Pinning is recorded with JFR during the run; a virtual
+ * thread blocked while application code holds a monitor fails the test.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@Tag("load")
+class VirtualThreadPostLifecycleLoadTests extends PostLifecycleLoadTests {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    private Recording recording;
+
+    @BeforeEach
+    void recordPinning() {
+        recording = new Recording();
+        recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+        recording.start();
+    }
+
+    @AfterEach
+    void noPinningInApplicationCode() throws IOException {
+        Path file = Files.createTempFile("lfp-pinning", ".jfr");
+        try {
+            recording.stop();
+            recording.dump(file);
+            List<String> pinnedAt = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals(PINNED_EVENT))
+                    .map(VirtualThreadPostLifecycleLoadTests::applicationFrame)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+            assertThat(pinnedAt).as("virtual threads pinned while blocked in").isEmpty();
+        } finally {
+            recording.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void tomcatServesRequestsOnVirtualThreads() {
+        TomcatWebServer server = (TomcatWebServer) context.getWebServer();
+        assertThat(server.getTomcat().getConnector().getProtocolHandler().getExecutor())
+                .isInstanceOf(VirtualThreadExecutor.class);
+    }
+
+    // the innermost frame outside the JDK, when it is ours; pinning inside drivers or libraries is not
+    private static String applicationFrame(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return null;
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) {
+                continue;
+            }
+            return type.startsWith("com.zanta.lfp.") ? type + "." + frame.getMethod().getName() : null;
+        }
+        return null;
+    }
+}
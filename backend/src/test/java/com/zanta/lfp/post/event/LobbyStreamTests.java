@@ -0,0 +1,216 @@
+package com.zanta.lfp.post.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zanta.lfp.cloud.messaging.MessageQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LobbyStreamTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MessageQueue messageQueue = new MessageQueue(MessageQueue.TopicConfig.defaults(), meterRegistry);
+    private final LobbyStream lobbyStream = new LobbyStream(messageQueue, new ObjectMapper().findAndRegisterModules(),
+            meterRegistry, Duration.ofMinutes(1), 100, 2, Duration.ofMillis(100));
+
+    @AfterEach
+    void tearDown() {
+        lobbyStream.shutdown();
+        messageQueue.shutdown();
+    }
+
+    @Test
+    void clientsOnlyReceiveTheirGameAndEveryExpiry() throws Exception {
+        RecordingEmitter valorant = new RecordingEmitter();
+        RecordingEmitter everyGame = new RecordingEmitter();
+        lobbyStream.subscribe(1, valorant);
+        lobbyStream.subscribe(null, everyGame);
+
+        publish(event(PostEvent.Type.CREATED, 10L, 1, 0));
+        publish(event(PostEvent.Type.CREATED, 20L, 2, 0));
+        publish(PostEvent.expired(30L));
+
+        assertThat(valorant.next()).startsWith("event:CREATED\n").contains("\"postId\":10");
+        assertThat(valorant.next()).startsWith("event:EXPIRED\n").contains("{\"type\":\"EXPIRED\",\"postId\":30,");
+        assertThat(everyGame.next()).contains("\"postId\":10");
+        assertThat(everyGame.next()).contains("\"postId\":20");
+        assertThat(everyGame.next()).contains("\"postId\":30");
+        assertThat(valorant.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void burstsDoNotDropAClientThatIsWriting() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        lobbyStream.subscribe(null, client);
+
+        for (long postId = 1; postId <= 50; postId++) {
+            publish(PostEvent.expired(postId));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertThat(client.next()).startsWith("event:EXPIRED\n");
+        }
+        assertThat(lobbyStream.clientCount()).isEqualTo(1);
+    }
+
+    @Test
+    void burstsOnAPostCoalesceWhileTheClientIsWriting() throws Exception {
+        RecordingEmitter client = new RecordingEmitter();
+        lobbyStream.subscribe(null, client);
+        client.holdWrites();
+
+        publish(event(PostEvent.Type.CREATED, 1L, 1, 0));
+        assertThat(client.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        publish(event(PostEvent.Type.CREATED, 2L, 1, 0));
+        publish(event(PostEvent.Type.JOINED, 2L, 1, 1));
+        publish(event(PostEvent.Type.JOINED, 2L, 1, 2));
+        publish(event(PostEvent.Type.CREATED, 3L, 1, 0));
+        publish(event(PostEvent.Type.DELETED, 3L, 1, 0));
+        awaitDelivered();
+        client.release.countDown();
+
+        assertThat(client.next()).contains("\"postId\":1,");
+        assertThat(client.next()).startsWith("event:CREATED\n").contains("\"postId\":2,").contains("\"currentPlayers\":2");
+        assertThat(client.events.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void stalledConsumersAreDisconnected() throws Exception {
+        RecordingEmitter slow = new RecordingEmitter();
+        lobbyStream.subscribe(null, slow);
+        slow.holdWrites();
+
+        publish(event(PostEvent.Type.CREATED, 1L, 1, 0));
+        assertThat(slow.writing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(200);
+        for (long postId = 2; postId <= 4; postId++) {
+            publish(event(PostEvent.Type.CREATED, postId, 1, 0));
+        }
+        awaitDelivered();
+
+        assertThat(lobbyStream.clientCount()).isZero();
+        assertThat(meterRegistry.counter("lfp.posts.stream.dropped").count()).isEqualTo(1);
+        slow.release.countDown();
+        assertThat(slow.completed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // the stream is public: a browser EventSource cannot send the Authorization header the rest of the API needs
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+    class BrowserClients {
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private ApplicationEventPublisher eventPublisher;
+
+        private final HttpClient httpClient = HttpClient.newHttpClient();
+
+        @Test
+        void openTheStreamWithoutAToken() throws Exception {
+            HttpResponse<Stream<String>> response = httpClient.send(HttpRequest.newBuilder(uri("/api/v1/posts/stream"))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofLines());
+            try (Stream<String> lines = response.body()) {
+                assertThat(response.statusCode()).isEqualTo(200);
+                assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                        type -> assertThat(type).startsWith("text/event-stream"));
+
+                eventPublisher.publishEvent(PostEvent.expired(42L));
+                String event = CompletableFuture.supplyAsync(() -> lines.filter(line -> line.startsWith("event:"))
+                        .findFirst().orElse(null)).get(5, TimeUnit.SECONDS);
+                assertThat(event).isEqualTo("event:EXPIRED");
+            }
+        }
+
+        @Test
+        void theRestOfThePostsApiStillNeedsAToken() throws Exception {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/api/v1/posts/all")).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isIn(401, 403);
+        }
+
+        private URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+    }
+
+    private void publish(PostEvent event) {
+        messageQueue.publish(PostEventRelay.TOPIC, event);
+    }
+
+    private void awaitDelivered() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (messageQueue.lag(PostEventRelay.TOPIC) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        // the batch handler may still be fanning out the last message it took
+        Thread.sleep(50);
+    }
+
+    private static PostEvent event(PostEvent.Type type, Long postId, int gameId, int currentPlayers) {
+        return new PostEvent(type, postId, gameId, "Gold", true, 5, currentPlayers, null);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        void holdWrites() {
+            release = new CountDownLatch(1);
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            return event;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            if (text.charAt(0) == ':') {
+                return;
+            }
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(text.toString());
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
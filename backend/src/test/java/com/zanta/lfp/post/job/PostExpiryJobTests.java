@@ -0,0 +1,102 @@
+package com.zanta.lfp.post.job;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.post.event.PostEvent;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.post.service.LobbyIndex;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// own context and database, and no scheduled run while the test counts expired rows
+@SpringBootTest(properties = "lfp.posts.expiry-interval=1h")
+@RecordApplicationEvents
+class PostExpiryJobTests {
+
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private LobbyIndex lobbyIndex;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private ApplicationEvents events;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private String run;
+    private User owner;
+    private Game game;
+
+    @BeforeEach
+    void setUp() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(TestFixtures.user("expiry-" + run));
+        game = gameRepository.save(TestFixtures.game("expiry-" + run));
+    }
+
+    @Test
+    void expiresEveryStalePostAcrossSeveralBatches() {
+        List<Long> stale = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stale.add(savePost(now.minusHours(7).minusMinutes(i)).getId());
+        }
+        List<Long> fresh = List.of(savePost(now.minusHours(1)).getId(), savePost(now).getId());
+        lobbyIndex.rebuild();
+
+        job(2).expireStalePosts();
+
+        assertThat(postRepository.findAllById(stale)).allMatch(post -> !post.getActive());
+        assertThat(postRepository.findAllById(fresh)).allMatch(Post::getActive);
+        assertThat(meterRegistry.counter("lfp.posts.expired").count()).isEqualTo(5);
+        assertThat(events.stream(PostEvent.class).filter(event -> event.type() == PostEvent.Type.EXPIRED)
+                .map(PostEvent::postId)).containsExactlyInAnyOrderElementsOf(stale);
+        assertThat(lobbyIndex.find(game.getId(), null, null, 0, 10)).containsExactlyInAnyOrderElementsOf(fresh);
+    }
+
+    @Test
+    void rejectsABatchSizeThatIsNotPositive() {
+        assertThatThrownBy(() -> job(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> job(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private PostExpiryJob job(int batchSize) {
+        return new PostExpiryJob(postRepository, lobbyIndex, eventPublisher, meterRegistry, Duration.ofHours(6), batchSize);
+    }
+
+    private Post savePost(LocalDateTime createdAt) {
+        Post post = postRepository.save(Post.builder()
+                .title("Expiry lobby")
+                .teamSize(5)
+                .currentPlayers(0)
+                .owner(owner)
+                .game(game)
+                .build());
+        // createdAt is stamped on persist
+        post.setCreatedAt(createdAt);
+        return postRepository.save(post);
+    }
+}
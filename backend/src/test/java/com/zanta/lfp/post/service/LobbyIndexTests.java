@@ -0,0 +1,140 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.post.event.PostEvent;
+import com.zanta.lfp.post.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LobbyIndexTests {
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private LobbyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new LobbyIndex(null, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void filtersByGameRankVoiceChatAndFreeSlots() {
+        created(1, 10, "Gold", true, 5, 1, now.minusMinutes(3));
+        created(2, 10, "Gold", false, 5, 1, now.minusMinutes(2));
+        created(3, 10, "Silver", true, 5, 4, now.minusMinutes(1));
+        created(4, 20, "Gold", true, 5, 0, now);
+
+        assertThat(index.find(10, null, null, 0, 10)).containsExactly(3L, 2L, 1L);
+        assertThat(index.find(10, "Gold", null, 0, 10)).containsExactly(2L, 1L);
+        assertThat(index.find(10, "Gold", true, 0, 10)).containsExactly(1L);
+        assertThat(index.find(null, null, true, 2, 10)).containsExactly(4L, 1L);
+        assertThat(index.find(30, null, null, 0, 10)).isEmpty();
+        assertThat(index.find(null, "Diamond", null, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void joinsAndLeavesMoveLobbiesBetweenFreeSlotBuckets() {
+        created(1, 10, null, false, 3, 1, now);
+
+        index.onPostEvent(event(PostEvent.Type.JOINED, 1));
+        assertThat(index.find(10, null, null, 1, 10)).containsExactly(1L);
+
+        index.onPostEvent(event(PostEvent.Type.JOINED, 1));
+        assertThat(index.find(10, null, null, 1, 10)).isEmpty();
+
+        index.onPostEvent(event(PostEvent.Type.LEFT, 1));
+        assertThat(index.find(10, null, null, 1, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void deletedAndExpiredLobbiesDisappear() {
+        created(1, 10, null, false, 5, 0, now.minusHours(7));
+        created(2, 10, null, false, 5, 0, now.minusHours(1));
+        created(3, 10, null, false, 5, 0, now);
+
+        index.onPostEvent(event(PostEvent.Type.DELETED, 3));
+        assertThat(index.evictCreatedBefore(now.minusHours(6))).containsExactly(1L);
+
+        assertThat(index.find(null, null, null, 0, 10)).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void returnsNewestLobbiesUpToTheLimitAndReusesSlots() {
+        for (long id = 1; id <= 5_000; id++) {
+            created(id, (int) (id % 7), null, id % 2 == 0, 10, 0, now.plusSeconds(id));
+        }
+        for (long id = 1; id <= 2_500; id++) {
+            index.onPostEvent(event(PostEvent.Type.DELETED, id));
+        }
+        for (long id = 5_001; id <= 6_000; id++) {
+            created(id, 0, null, true, 10, 0, now.plusSeconds(id));
+        }
+
+        List<Long> newest = index.find(null, null, null, 9, 5);
+        assertThat(newest).containsExactly(LongStream.rangeClosed(5_996, 6_000).boxed()
+                .sorted((a, b) -> Long.compare(b, a)).toArray(Long[]::new));
+        assertThat(index.size()).isEqualTo(3_500);
+    }
+
+    @Test
+    void eventsRacingARebuildAreReplayedOntoTheReloadedIndex() {
+        // the read sees lobbies 1, 2 and 4 as they were before the events below committed
+        List<PostRepository.LobbyRow> rows = List.of(
+                new Row(1L, 10, 5, 1, now.minusMinutes(4)),
+                new Row(2L, 10, 5, 1, now.minusMinutes(3)),
+                new Row(4L, 10, 5, 2, now.minusMinutes(1)));
+        index = new LobbyIndex(lobbiesTable(rows, () -> {
+            index.onPostEvent(event(PostEvent.Type.JOINED, 1));
+            index.onPostEvent(event(PostEvent.Type.DELETED, 2));
+            created(3, 10, null, false, 5, 1, now.minusMinutes(2));
+            // committed before the read, so the row already has the later join
+            created(4, 10, null, false, 5, 1, now.minusMinutes(1));
+        }), new SimpleMeterRegistry());
+
+        index.rebuild();
+
+        assertThat(index.find(10, null, null, 0, 10)).containsExactly(4L, 3L, 1L);
+        assertThat(index.find(10, null, null, 4, 10)).containsExactly(3L);
+        assertThat(index.find(10, null, null, 3, 10)).containsExactly(4L, 3L, 1L);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    private void created(long id, int gameId, String rank, boolean voiceChat, int teamSize, int players,
+                         LocalDateTime createdAt) {
+        index.onPostEvent(new PostEvent(PostEvent.Type.CREATED, id, gameId, rank, voiceChat, teamSize, players, createdAt));
+    }
+
+    private static PostEvent event(PostEvent.Type type, long id) {
+        return new PostEvent(type, id, null, null, null, 0, 0, null);
+    }
+
+    // answers findActiveLobbies with the rows, running duringRead before it returns
+    private static PostRepository lobbiesTable(List<PostRepository.LobbyRow> rows, Runnable duringRead) {
+        return (PostRepository) Proxy.newProxyInstance(PostRepository.class.getClassLoader(),
+                new Class<?>[]{PostRepository.class}, (proxy, method, args) -> {
+                    if (!method.getName().equals("findActiveLobbies")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    duringRead.run();
+                    return rows;
+                });
+    }
+
+    private record Row(Long postId, Integer gameId, Integer teamSize, Integer currentPlayers, LocalDateTime createdAt)
+            implements PostRepository.LobbyRow {
+        public Long getPostId() { return postId; }
+        public Integer getGameId() { return gameId; }
+        public String getRank() { return null; }
+        public Boolean getVoiceChat() { return false; }
+        public Integer getTeamSize() { return teamSize; }
+        public Integer getCurrentPlayers() { return currentPlayers; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+    }
+}
@@ -0,0 +1,145 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.exception.GlobalExceptionHandler;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.post.dto.PostDto;
+import com.zanta.lfp.post.dto.PostFeedDto;
+import com.zanta.lfp.post.dto.PostFeedRequest;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class PostFeedPaginationTests {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+    private String run;
+    private User owner;
+    private Game game;
+    private Game otherGame;
+
+    @BeforeEach
+    void setUp() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(TestFixtures.user("feed-" + run));
+        game = saveGame("main");
+        otherGame = saveGame("other");
+    }
+
+    @Test
+    void pagesNeitherRepeatNorSkipPostsSharingACreationTime() {
+        List<Post> posts = new ArrayList<>();
+        // three groups of four posts with identical timestamps, so only the id orders them
+        for (int i = 0; i < 12; i++) {
+            posts.add(savePost(game, now.minusMinutes(i / 4), "Gold", false, 5, 0));
+        }
+        savePost(otherGame, now, "Gold", false, 5, 0);
+        List<Long> expected = posts.stream()
+                .sorted(Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed())
+                .map(Post::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            PostFeedDto page = feed(new PostFeedRequest(game.getId(), null, null, null, cursor, 5));
+            assertThat(page.posts()).hasSizeLessThanOrEqualTo(5);
+            page.posts().forEach(post -> seen.add(post.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void filtersNarrowTheFeed() {
+        Post goldVoice = savePost(game, now, "Gold", true, 5, 1);
+        Post goldFull = savePost(game, now.minusMinutes(1), "Gold", false, 2, 2);
+        Post silverOpen = savePost(game, now.minusMinutes(2), "Silver", false, 4, 0);
+        savePost(otherGame, now, "Gold", true, 5, 0);
+
+        assertThat(ids(new PostFeedRequest(game.getId(), null, null, null, null, 10)))
+                .containsExactly(goldVoice.getId(), goldFull.getId(), silverOpen.getId());
+        assertThat(ids(new PostFeedRequest(game.getId(), "Gold", null, null, null, 10)))
+                .containsExactly(goldVoice.getId(), goldFull.getId());
+        assertThat(ids(new PostFeedRequest(game.getId(), null, true, null, null, 10)))
+                .containsExactly(goldVoice.getId());
+        assertThat(ids(new PostFeedRequest(game.getId(), "Gold", null, true, null, 10)))
+                .containsExactly(goldVoice.getId());
+        assertThat(ids(new PostFeedRequest(game.getId(), "Diamond", null, null, null, 10))).isEmpty();
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        PostFeedRequest request = new PostFeedRequest(game.getId(), null, null, null, "not-a-cursor", 10);
+
+        assertThatThrownBy(() -> postService.getFeed(request, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid feed cursor");
+        assertThat(new GlobalExceptionHandler().handleRuntimeExceptions(new IllegalArgumentException("Invalid feed cursor"))
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private List<Long> ids(PostFeedRequest request) {
+        return feed(request).posts().stream().map(PostDto::id).toList();
+    }
+
+    private PostFeedDto feed(PostFeedRequest request) {
+        return (PostFeedDto) postService.getFeed(request, owner.getId()).getBody();
+    }
+
+    private Game saveGame(String name) {
+        return gameRepository.save(TestFixtures.game("feed-" + run + "-" + name));
+    }
+
+    private Post savePost(Game postGame, LocalDateTime createdAt, String rank, boolean voiceChat,
+                          int teamSize, int currentPlayers) {
+        Post post = postRepository.save(Post.builder()
+                .title("Feed lobby")
+                .teamSize(teamSize)
+                .currentPlayers(currentPlayers)
+                .owner(owner)
+                .game(postGame)
+                .playerRank(rank)
+                .voiceChat(voiceChat)
+                .build());
+        // createdAt is stamped on persist, the test needs chosen (and shared) timestamps
+        post.setCreatedAt(createdAt);
+        entityManager.flush();
+        return post;
+    }
+}
@@ -0,0 +1,112 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.post.model.PostParticipant;
+import com.zanta.lfp.post.repository.PostParticipantRepository;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class PostFeedQueryCountTests {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private PostParticipantRepository postParticipantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User viewer;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        viewer = saveUser();
+    }
+
+    @Test
+    void feedQueryCountDoesNotGrowWithActivePosts() {
+        seedPosts(3);
+        long smallFeed = countFeedStatements();
+
+        seedPosts(40);
+        long largeFeed = countFeedStatements();
+
+        assertThat(smallFeed).isEqualTo(largeFeed);
+        // feed query + one hasJoined lookup for the whole page
+        assertThat(largeFeed).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void anonymousFeedSkipsHasJoinedLookup() {
+        seedPosts(10);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        postService.getAllPosts(null);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long countFeedStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        postService.getAllPosts(viewer.getId());
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seedPosts(int count) {
+        for (int i = 0; i < count; i++) {
+            User owner = saveUser();
+            Game game = gameRepository.save(TestFixtures.game("game-" + sequence++));
+            Post post = postRepository.save(Post.builder()
+                    .title("post " + i)
+                    .teamSize(5)
+                    .owner(owner)
+                    .game(game)
+                    .createdAt(LocalDateTime.now())
+                    .build());
+            if (i % 2 == 0) {
+                postParticipantRepository.save(PostParticipant.builder().post(post).user(viewer).build());
+            }
+        }
+    }
+
+    private User saveUser() {
+        int n = sequence++;
+        return userRepository.save(TestFixtures.user("user" + n));
+    }
+}
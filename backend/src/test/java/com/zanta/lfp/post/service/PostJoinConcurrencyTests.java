@@ -0,0 +1,141 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.post.repository.PostParticipantRepository;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Slf4j
+class PostJoinConcurrencyTests {
+
+    private static final int JOINERS = 300;
+    private static final int THREADS = 64;
+    private static final int TEAM_SIZE = 5;
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private PostParticipantRepository postParticipantRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private Game game;
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i <= JOINERS; i++) {
+            users.add(userRepository.save(TestFixtures.user("joiner-" + run + "-" + i)));
+        }
+        game = gameRepository.save(TestFixtures.game("stress-" + run, 10));
+        post = postRepository.save(Post.builder()
+                .title("stress lobby")
+                .teamSize(TEAM_SIZE)
+                .owner(users.get(0))
+                .game(game)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postParticipantRepository.deleteAll(postParticipantRepository.findAll().stream()
+                .filter(participant -> participant.getPost().getId().equals(post.getId()))
+                .toList());
+        postRepository.delete(post);
+        gameRepository.delete(game);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void concurrentJoinsNeverOverfillAPost() throws InterruptedException {
+        AtomicInteger joined = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(JOINERS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        for (int i = 1; i <= JOINERS; i++) {
+            Long userId = users.get(i).getId();
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    ResponseEntity<?> response = postService.joinPost(post.getId(), userId);
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        joined.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                } catch (Exception ex) {
+                    failed.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        log.info("{} concurrent joins on {} threads in {} ms ({} joins/s), {} accepted, {} rejected",
+                JOINERS, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(JOINERS / (elapsedNanos / 1e9)), joined.get(), rejected.get());
+
+        Post reloaded = postRepository.findById(post.getId()).orElseThrow();
+        long participants = postParticipantRepository.findAll().stream()
+                .filter(participant -> participant.getPost().getId().equals(post.getId()))
+                .count();
+
+        assertThat(failed.get()).isZero();
+        assertThat(joined.get()).isEqualTo(TEAM_SIZE);
+        assertThat(reloaded.getCurrentPlayers()).isEqualTo(TEAM_SIZE);
+        assertThat(participants).isEqualTo(TEAM_SIZE);
+    }
+
+    @Test
+    void secondJoinBySameUserIsRejected() {
+        Long userId = users.get(1).getId();
+
+        assertThat(postService.joinPost(post.getId(), userId).getStatusCode().is2xxSuccessful()).isTrue();
+        ResponseEntity<?> again = postService.joinPost(post.getId(), userId);
+        assertThat(again.getStatusCode().is4xxClientError()).isTrue();
+        assertThat(again.getBody()).isEqualTo(Map.of("error", "You have already joined this post"));
+
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getCurrentPlayers()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,116 @@
+package com.zanta.lfp.post.service;
+
+import com.zanta.lfp.TestFixtures;
+import com.zanta.lfp.game.model.Game;
+import com.zanta.lfp.game.repository.GameRepository;
+import com.zanta.lfp.game.service.GameService;
+import com.zanta.lfp.post.dto.CreatePostDto;
+import com.zanta.lfp.post.model.Post;
+import com.zanta.lfp.post.repository.PostRepository;
+import com.zanta.lfp.user.enums.ERole;
+import com.zanta.lfp.user.model.User;
+import com.zanta.lfp.user.repository.UserRepository;
+import com.zanta.lfp.user.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PostSecondLevelCacheTests {
+
+    @Autowired
+    private PostService postService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private GameService gameService;
+    @Autowired
+    private PostRepository postRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private GameRepository gameRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        run = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void repeatedPostReadsDoNotQueryGamesOrUsers() {
+        User owner = saveUser("owner");
+        User viewer = saveUser("viewer");
+        Game game = saveGame("game");
+        Long first = savePost(owner, game);
+        Long second = savePost(owner, game);
+        // the first read loads the game's modes once
+        postService.getPost(first, viewer.getId());
+
+        statistics.clear();
+        postService.getPost(first, viewer.getId());
+        postService.getPost(second, viewer.getId());
+        postService.createPost(new CreatePostDto("Cached lobby", null, 2, game.getId(), "Gold", false), owner.getId());
+
+        assertThat(statistics.getEntityStatistics(Game.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getCollectionStatistics(Game.class.getName() + ".modes").getLoadCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void adminMutationsKeepTheCacheCurrent() {
+        User user = saveUser("promoted");
+        Game game = saveGame("retired");
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getRole()).isEqualTo(ERole.USER);
+        assertThat(gameRepository.findById(game.getId())).isPresent();
+
+        userService.createAdminUser(user.getId());
+        gameService.deleteGame(game.getName());
+
+        statistics.clear();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getRole()).isEqualTo(ERole.ADMIN);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        // the region keeps a soft lock for the deleted game until it times out, which reads as a miss
+        assertThat(gameRepository.findById(game.getId())).isEmpty();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Game.class.getName()).getLoadCount()).isZero();
+    }
+
+    private User saveUser(String name) {
+        return userRepository.save(TestFixtures.user(name + "-" + run));
+    }
+
+    private Game saveGame(String name) {
+        return gameRepository.save(TestFixtures.game(name + "-" + run));
+    }
+
+    private Long savePost(User owner, Game game) {
+        return postRepository.save(Post.builder()
+                .title("Lobby")
+                .teamSize(2)
+                .currentPlayers(0)
+                .owner(owner)
+                .game(game)
+                .createdAt(LocalDateTime.now())
+                .active(true)
+                .playerRank("Gold")
+                .voiceChat(false)
+                .build()).getId();
+    }
+}
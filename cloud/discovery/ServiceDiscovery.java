@@ -1,29 +0,0 @@
-package com.zanta.lfp.cloud.discovery;
-
-import org.springframework.stereotype.Component;
-import java.util.List;
-import java.util.Map;
-
-@Component
-public class ServiceDiscovery {
-
-    private Map<String, List<String>> serviceRegistry;
-
-    public void registerService(String serviceName, String instanceId, String host, int port) {
-        System.out.println("Service Discovery: Registering " + serviceName + " at " + host + ":" + port);
-    }
-
-    public void deregisterService(String serviceName, String instanceId) {
-        System.out.println("Service Discovery: Deregistering " + serviceName + " instance " + instanceId);
-    }
-
-    public List<String> discoverService(String serviceName) {
-        System.out.println("Service Discovery: Discovering instances of " + serviceName);
-        return List.of();
-    }
-
-    public String getServiceHealth(String serviceName, String instanceId) {
-        System.out.println("Service Discovery: Checking health of " + serviceName);
-        return "UNKNOWN";
-    }
-}
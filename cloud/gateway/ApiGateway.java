@@ -1,32 +0,0 @@
-package com.zanta.lfp.cloud.gateway;
-
-import org.springframework.stereotype.Component;
-
-@Component
-public class ApiGateway {
-
-    public Object routeRequest(Object request, String serviceName) {
-        System.out.println("API Gateway: Routing request to " + serviceName);
-        return null;
-    }
-
-    public boolean authenticateRequest(String token) {
-        System.out.println("API Gateway: Authenticating request with token");
-        return false;
-    }
-
-    public boolean checkRateLimit(String clientId) {
-        System.out.println("API Gateway: Checking rate limit for " + clientId);
-        return true;
-    }
-
-    public Object transformRequest(Object request) {
-        System.out.println("API Gateway: Transforming request");
-        return request;
-    }
-
-    public Object transformResponse(Object response) {
-        System.out.println("API Gateway: Transforming response");
-        return response;
-    }
-}